@@ -5,4 +5,11 @@ export const getHotArticleList = async (params: any) => {
         url: '/article/hotList',
         params: params,
     })
+}
+
+export const getTrendingArticleList = async (params: any) => {
+    return request({
+        url: '/article/trendingList',
+        params: params,
+    })
 }
\ No newline at end of file
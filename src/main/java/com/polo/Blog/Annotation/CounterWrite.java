@@ -0,0 +1,13 @@
+package com.polo.Blog.Annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 计数类写入(浏览量、搜索次数)：写语句照常走主库，但不算用户的写操作，不开启读己之写窗口
+ * 方法里的查询和 @ReadReplica 一样可以走从库；只读接口本身不写库，由调用方另外调用这类方法
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CounterWrite {
+}
@@ -0,0 +1,14 @@
+package com.polo.Blog.Annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 只读接口：方法内的查询可以走从库(配置了从库、不在读写事务里、当前用户不在写后粘滞窗口内时)
+ * 方法里不要写库，浏览量这类计数写入放到 @CounterWrite 方法里由调用方另外调用
+ * 万一有写语句仍然走主库，但不算用户的写操作，不会开启读己之写窗口
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadReplica {
+}
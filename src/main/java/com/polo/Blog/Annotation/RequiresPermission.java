@@ -0,0 +1,17 @@
+package com.polo.Blog.Annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 声明接口需要的权限标识(对应 sys_menu.perms)，由 LoginInterceptor 校验
+ * 加在类上表示整个 Controller 都需要，方法上的优先
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresPermission {
+    /**
+     * 权限标识，如 blog:article:audit
+     */
+    String value();
+}
@@ -0,0 +1,75 @@
+package com.polo.Blog.Config;
+
+import com.polo.Blog.Interceptor.WriteRoutingInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离数据源：spring.datasource 是主库，datasource-routing.replica-urls 是从库(可以没有)
+ * Flyway、事务管理器、MyBatis 用的都是外层的 LazyConnectionDataSourceProxy
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${datasource-routing.replica-urls:}")
+    private List<String> replicaUrls;
+    @Value("${datasource-routing.replica-username:${spring.datasource.username:}}")
+    private String replicaUsername;
+    @Value("${datasource-routing.replica-password:${spring.datasource.password:}}")
+    private String replicaPassword;
+    @Value("${datasource-routing.replica-pool-size:10}")
+    private int replicaPoolSize;
+    @Value("${datasource-routing.sticky-ms:2000}")
+    private long stickyMillis;
+
+    /**
+     * 主库连接池，spring.datasource.hikari.* 的配置照常生效
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public RoutingDataSource routingDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) continue;
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            //从库只读，驱动可以据此优化
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new RoutingDataSource(primaryDataSource, replicas, stickyMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public WriteRoutingInterceptor writeRoutingInterceptor(RoutingDataSource routingDataSource) {
+        return new WriteRoutingInterceptor(routingDataSource);
+    }
+}
@@ -0,0 +1,30 @@
+package com.polo.Blog.Config;
+
+import com.polo.Blog.Service.ArticleEventService;
+import com.polo.Blog.Service.CacheInvalidationService;
+import com.polo.Blog.Utils.CacheStats;
+import com.polo.Blog.Utils.SingleFlight;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.sql.DataSource;
+
+/**
+ * fast 配置下全局懒加载，这里列出的热点 Bean 仍在启动时创建：
+ * 数据源和 MyBatis(第一次查询不再建连接池、解析 Mapper)、拦截器(每个请求都经过)、内存索引和缓存(启动时加载数据)、文章事件总线(启动投递线程补发积压事件)、跨节点缓存失效(定时拉取)
+ */
+@Configuration
+@Profile("fast")
+public class FastStartConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerHotBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, SqlSessionFactory.class,
+                HandlerInterceptor.class, CacheStats.class, SingleFlight.class, ArticleEventService.class,
+                CacheInvalidationService.class);
+    }
+}
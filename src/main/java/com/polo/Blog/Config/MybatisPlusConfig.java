@@ -2,7 +2,10 @@ package com.polo.Blog.Config;
 
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.OptimisticLockerInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.polo.Blog.Interceptor.SqlStatsInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,13 +13,24 @@ import org.springframework.context.annotation.Configuration;
 public class MybatisPlusConfig {
 
     /**
-     * 添加分页插件
+     * 添加分页插件和乐观锁插件
      */
     @Bean
     public MybatisPlusInterceptor mybatisPlusInterceptor() {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
         // 2. 添加分页拦截器，并指定数据库类型为 MySQL
         interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
+        // 3. 乐观锁：带 @Version 的实体 updateById 时自动加 version 条件并加一
+        interceptor.addInnerInterceptor(new OptimisticLockerInnerInterceptor());
         return interceptor;
     }
+
+    /**
+     * SQL 耗时统计插件 (替代控制台打印 SQL)
+     */
+    @Bean
+    public SqlStatsInterceptor sqlStatsInterceptor(@Value("${sql-stats.slow-ms:200}") long slowMillis,
+                                                   @Value("${sql-stats.slow-samples:50}") int slowSamples) {
+        return new SqlStatsInterceptor(slowMillis, slowSamples);
+    }
 }
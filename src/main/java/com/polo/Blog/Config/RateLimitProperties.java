@@ -0,0 +1,29 @@
+package com.polo.Blog.Config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 接口限流配置 (application.yaml 的 rate-limit 段)
+ */
+@Data
+@Component
+@ConfigurationProperties("rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    //每条规则最多保留的用户/IP 数，超过后新来的共用一个桶
+    private int maxKeys = 100_000;
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;                 // 规则名，作为统计标签
+        private List<String> paths = new ArrayList<>(); // 路径(Ant 风格)
+        private double permitsPerSecond;     // 每秒补充的次数
+        private int burst = 1;               // 允许的突发次数(桶容量)
+    }
+}
@@ -0,0 +1,87 @@
+package com.polo.Blog.Config;
+
+import com.polo.Blog.Utils.DataSourceContext;
+import com.polo.Blog.Utils.UserContext;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 主从路由：只有标了 @ReadReplica 的读才走从库(多个从库轮询)，其余全部走主库
+ * 读写事务、用户刚写过(粘滞窗口内)的读也回到主库，保证读己之写
+ * 外面要套 LazyConnectionDataSourceProxy，真正执行第一条 SQL 时才决定连哪个库
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    //粘滞表超过这个大小时顺手清理过期的
+    private static final int STICKY_PRUNE_SIZE = 4096;
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+    private final String[] replicaKeys;
+    private final long stickyNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    //用户 -> 粘滞到期时间(nanoTime)
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public RoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, long stickyMillis) {
+        pools.put(PRIMARY, primary);
+        replicaKeys = new String[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaKeys[i] = "replica-" + i;
+            pools.put(replicaKeys[i], replicas.get(i));
+        }
+        this.stickyNanos = stickyMillis * 1_000_000L;
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.length == 0 || DataSourceContext.current() != DataSourceContext.Route.REPLICA) return PRIMARY;
+        //读写事务里的查询要看到本事务的写入
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return PRIMARY;
+        if (isSticky(currentUserKey())) return PRIMARY;
+        return replicaKeys[Math.floorMod(next.getAndIncrement(), replicaKeys.length)];
+    }
+
+    /**
+     * 当前用户写入成功后调用，窗口内他的读都走主库，避免从库延迟导致刚写的内容看不到
+     */
+    public void markWrite() {
+        String userKey = currentUserKey();
+        if (userKey == null || stickyNanos <= 0 || replicaKeys.length == 0) return;
+        long now = System.nanoTime();
+        stickyUntil.put(userKey, now + stickyNanos);
+        if (stickyUntil.size() > STICKY_PRUNE_SIZE) {
+            stickyUntil.values().removeIf(until -> until - now <= 0);
+        }
+    }
+
+    /**
+     * 各连接池，key 为 primary / replica-N
+     */
+    public Map<String, HikariDataSource> getPools() {
+        return Collections.unmodifiableMap(pools);
+    }
+
+    private boolean isSticky(String userKey) {
+        if (userKey == null) return false;
+        Long until = stickyUntil.get(userKey);
+        if (until == null) return false;
+        if (until - System.nanoTime() > 0) return true;
+        stickyUntil.remove(userKey, until);
+        return false;
+    }
+
+    private static String currentUserKey() {
+        UserContext.LoginUser loginUser = UserContext.get();
+        if (loginUser == null) return null;
+        return loginUser.getUserId() != null ? loginUser.getUserId().toString() : loginUser.getUsername();
+    }
+}
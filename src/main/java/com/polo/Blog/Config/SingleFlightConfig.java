@@ -0,0 +1,17 @@
+package com.polo.Blog.Config;
+
+import com.polo.Blog.Utils.SingleFlight;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SingleFlightConfig {
+
+    /**
+     * 文章详情、热门列表等热点读的并发合并，统计由 /metrics/prometheus 导出
+     */
+    @Bean
+    public SingleFlight articleLoads() {
+        return new SingleFlight("article");
+    }
+}
@@ -1,24 +1,38 @@
 package com.polo.Blog.Config;
 
 import com.polo.Blog.Interceptor.LoginInterceptor;
+import com.polo.Blog.Interceptor.RateLimitInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    @Autowired
+    private LoginInterceptor loginInterceptor;
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         // 注册你的拦截器
-        registry.addInterceptor(new LoginInterceptor())
+        registry.addInterceptor(loginInterceptor)
                 .addPathPatterns("/**")  // 拦截所有路径
                 .excludePathPatterns(    // 排除不需要登录的路径
                         "/auth/login",   // 登录接口不能拦截
                         "/auth/register",// 注册接口
                         "/file/**",      // 如果有公共文件访问
                         "/doc.html",     // Swagger 文档
-                        "/webjars/**"
+                        "/webjars/**",
+                        "/metrics/prometheus" // 指标抓取
                 );
+        // 限流放在登录拦截器之后，已登录的按用户、未登录的(如登录接口)按 IP
+        List<String> limitedPaths = rateLimitInterceptor.getPaths();
+        if (!limitedPaths.isEmpty()) {
+            registry.addInterceptor(rateLimitInterceptor).addPathPatterns(limitedPaths);
+        }
     }
 }
@@ -0,0 +1,65 @@
+package com.polo.Blog.Controller;
+
+import com.polo.Blog.Annotation.RequiresPermission;
+import com.polo.Blog.Domain.OV.AnalyticsRankVO;
+import com.polo.Blog.Domain.OV.AnalyticsSeriesVO;
+import com.polo.Blog.Service.AnalyticsService;
+import com.polo.Blog.Utils.Result;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+//======================================管理员权限==========================================//
+@RestController
+@RequestMapping("/analytics")
+@RequiresPermission("blog:analytics:view")
+public class AnalyticsController {
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    //单篇文章流量趋势
+    @GetMapping("/article")
+    public Result<AnalyticsSeriesVO> getArticleSeries(@RequestParam Long id,
+                                                      @RequestParam (required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                      @RequestParam (required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                      @RequestParam (defaultValue = "DAY") AnalyticsService.Granularity granularity,
+                                                      @RequestParam (defaultValue = "VIEW") AnalyticsService.Metric metric){
+        return Result.success(analyticsService.getArticleSeries(id, from, to, granularity, metric));
+    }
+
+    //分类流量趋势
+    @GetMapping("/category")
+    public Result<AnalyticsSeriesVO> getCategorySeries(@RequestParam Long id,
+                                                       @RequestParam (required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                       @RequestParam (required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                       @RequestParam (defaultValue = "DAY") AnalyticsService.Granularity granularity,
+                                                       @RequestParam (defaultValue = "VIEW") AnalyticsService.Metric metric){
+        return Result.success(analyticsService.getCategorySeries(id, from, to, granularity, metric));
+    }
+
+    //全站流量趋势
+    @GetMapping("/site")
+    public Result<AnalyticsSeriesVO> getSiteSeries(@RequestParam (required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                   @RequestParam (required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                   @RequestParam (defaultValue = "DAY") AnalyticsService.Granularity granularity,
+                                                   @RequestParam (defaultValue = "VIEW") AnalyticsService.Metric metric){
+        return Result.success(analyticsService.getSiteSeries(from, to, granularity, metric));
+    }
+
+    //区间内文章排行
+    @GetMapping("/top")
+    public Result<List<AnalyticsRankVO>> getTopArticles(@RequestParam (required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                        @RequestParam (required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                        @RequestParam (defaultValue = "VIEW") AnalyticsService.Metric metric,
+                                                        @RequestParam (defaultValue = "10") int limit){
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(29) : from;
+        return Result.success(analyticsService.getTopArticles(start, end, metric, limit));
+    }
+}
@@ -1,84 +1,176 @@
 package com.polo.Blog.Controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.polo.Blog.Annotation.RequiresPermission;
+import com.polo.Blog.Domain.DTO.ArticleBatchDTO;
 import com.polo.Blog.Domain.DTO.ArticleDTO;
 import com.polo.Blog.Domain.Entity.Article;
 import com.polo.Blog.Domain.OV.ArticleVO;
+import com.polo.Blog.Domain.OV.BatchResultVO;
 import com.polo.Blog.Service.ArticleService;
+import com.polo.Blog.Service.FeedService;
+import com.polo.Blog.Service.ResponseCacheService;
+import com.polo.Blog.Service.SearchHistoryService;
 import com.polo.Blog.Utils.Result;
+import com.polo.Blog.Utils.UserContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/article")
 public class ArticleController {
     @Autowired
     private ArticleService articleService;
+    @Autowired
+    private ResponseCacheService responseCacheService;
+    @Autowired
+    private FeedService feedService;
+    @Autowired
+    private SearchHistoryService searchHistoryService;
 
     //根据文章id获取文章详细内容
+    //先只查版本号，客户端缓存还有效就记一次浏览后直接 304，不加载正文
+    //浏览量在只读查询之外单独记，读方法本身不写库
     @GetMapping("/detail")
-    public Result<ArticleVO> getArticleById(@RequestParam Long id) {
-        return Result.success(articleService.getArticleById(id));
+    public Result<ArticleVO> getArticleById(@RequestParam Long id, ServletWebRequest webRequest) {
+        Article stamp = articleService.getArticleStamp(id);
+        if (stamp != null && webRequest.checkNotModified(id + "-v" + stamp.getVersion(), toMillis(stamp.getUpdateTime()))) {
+            articleService.recordView(stamp);
+            return null;
+        }
+        ArticleVO articleVO = articleService.getArticleById(id);
+        if (stamp != null) {
+            articleService.recordView(stamp);
+            //返回的浏览量带上这一次
+            articleVO.setViewCount(articleVO.getViewCount() + 1);
+        }
+        return Result.success(articleVO);
     }
 
     //前端前台获取文章列表
     @GetMapping("/list")
-    public Result<List<ArticleVO>> getArticleList() {
-        return Result.success(articleService.getArticleList());
+    public ResponseEntity<byte[]> getArticleList(ServletWebRequest webRequest) {
+        if (feedNotModified(webRequest)) return null;
+        return responseCacheService.get(ResponseCacheService.Region.ARTICLE, "list:" + roleClass(),
+                () -> Result.success(articleService.getArticleList())).toResponse(webRequest.getRequest());
     }
     //根据标签获取文章
     @GetMapping("/listByTags")
-    public Result<List<ArticleVO>> getArticleListByTags(@RequestParam List<String> tag){
-        return Result.success(articleService.getArticleByTag(tag));
+    public Result<List<ArticleVO>> getArticleListByTags(@RequestParam List<String> tag, @RequestParam (defaultValue = "and") String mode, @RequestParam (defaultValue = "") List<String> exclude, ServletWebRequest webRequest){
+        if (feedNotModified(webRequest)) return null;
+        return Result.success(articleService.getArticleByTag(tag, mode, exclude));
     }
 
     @GetMapping("/search")
     public Result<List<ArticleVO>> getArticleByKeyWord(@RequestParam (defaultValue = "") String keyWord, @RequestParam (defaultValue = "") List<Long> categoryId){
-        return Result.success(articleService.getArticleByKeyWord(keyWord, categoryId));
+        List<ArticleVO> articles = articleService.getArticleByKeyWord(keyWord, categoryId);
+        searchHistoryService.recordSearch(keyWord);
+        return Result.success(articles);
     }
     @GetMapping("/hotList")
-    public Result<IPage<ArticleVO>> getHotArticleByViewCount(@RequestParam (defaultValue = "1") int page, @RequestParam (defaultValue = "20") int size){
-        return Result.success(articleService.getHotArticle(page, size));
+    public ResponseEntity<byte[]> getHotArticleByViewCount(@RequestParam (defaultValue = "1") int page, @RequestParam (defaultValue = "20") int size, ServletWebRequest webRequest){
+        //按实时浏览量排序，没有写入事件可作版本号，只走短时缓存
+        return responseCacheService.get(ResponseCacheService.Region.ARTICLE, "hotList:" + roleClass() + ":" + page + ":" + size,
+                () -> Result.success(articleService.getHotArticle(page, size))).toResponse(webRequest.getRequest());
+    }
+    @GetMapping("/trendingList")
+    public Result<IPage<ArticleVO>> getTrendingArticle(@RequestParam (defaultValue = "1") int page, @RequestParam (defaultValue = "20") int size){
+        return Result.success(articleService.getTrendingArticle(page, size));
     }
     //======================================创作者权限===========================================//
+    @RequiresPermission("blog:article:manage")
     @PostMapping("/auth/delete")
     public Result<String> deleteMyArticle(@RequestBody ArticleDTO articleDTO){
         return Result.success(articleService.deleteMyArticle(articleDTO));
     }
+    @RequiresPermission("blog:article:manage")
+    @PostMapping("/auth/batchDelete")
+    public Result<List<BatchResultVO>> batchDeleteMyArticle(@RequestBody ArticleBatchDTO articleBatchDTO){
+        return Result.success(articleService.batchDeleteMyArticle(articleBatchDTO.getIds()));
+    }
+    @RequiresPermission("blog:article:manage")
     @GetMapping("/managerList")
     public Result<List<ArticleVO>> getArticleManagerList(){
         return Result.success(articleService.getArticleManagerList());
     }
+    @RequiresPermission("blog:article:manage")
     @GetMapping("/searchMyArticle")
     public Result<List<ArticleVO>> getMyArticleByKeyWord(@RequestParam String keyWord){
         return Result.success(articleService.getMyArticleByKeyWord(keyWord));
     }
+    @RequiresPermission("blog:article:manage")
     @GetMapping("/myArticleByTags")
-    public Result<List<ArticleVO>> getMyArticleByTags(@RequestParam List<String> tag){
-        return Result.success(articleService.getMyArticleByTag(tag));
+    public Result<List<ArticleVO>> getMyArticleByTags(@RequestParam List<String> tag, @RequestParam (defaultValue = "and") String mode, @RequestParam (defaultValue = "") List<String> exclude){
+        return Result.success(articleService.getMyArticleByTag(tag, mode, exclude));
     }
     //======================================管理员权限==========================================//
     //前端后台获取文章列表
+    @RequiresPermission("blog:article:list")
     @GetMapping("/admin/list")
     public Result<List<ArticleVO>> getArticleListAdmin() {
         return Result.success(articleService.getArticleListAdmin());
     }
+    @RequiresPermission("blog:article:publish")
     @PostMapping("/publish")
     public Result<String> publishArticle(@RequestBody ArticleDTO articleDTO) {
         return Result.success(articleService.publishArticle(articleDTO));
     }
+    @RequiresPermission("blog:article:publish")
     @PostMapping("/update")
     public Result<String> updateArticle(@RequestBody ArticleDTO articleDTO) {
         return Result.success(articleService.updateArticle(articleDTO));
     }
+    @RequiresPermission("blog:article:remove")
     @PostMapping("/delete")
     public Result<String> deleteArticle(@RequestBody ArticleDTO articleDTO){
         return Result.success(articleService.deleteArticle(articleDTO));
     }
+    @RequiresPermission("blog:article:audit")
     @PostMapping("/admin/accessPublish")
     public Result<String> accessArticle(@RequestParam Long id){
         return Result.success(articleService.accessArticle(id));
     }
+    //批量操作，返回每篇文章的处理结果
+    @RequiresPermission("blog:article:audit")
+    @PostMapping("/admin/batchAccess")
+    public Result<List<BatchResultVO>> batchAccessArticle(@RequestBody ArticleBatchDTO articleBatchDTO){
+        return Result.success(articleService.batchAccessArticle(articleBatchDTO.getIds()));
+    }
+    @RequiresPermission("blog:article:remove")
+    @PostMapping("/batchDelete")
+    public Result<List<BatchResultVO>> batchDeleteArticle(@RequestBody ArticleBatchDTO articleBatchDTO){
+        return Result.success(articleService.batchDeleteArticle(articleBatchDTO.getIds()));
+    }
+    @RequiresPermission("blog:article:remove")
+    @PostMapping("/batchRestore")
+    public Result<List<BatchResultVO>> batchRestoreArticle(@RequestBody ArticleBatchDTO articleBatchDTO){
+        return Result.success(articleService.batchRestoreArticle(articleBatchDTO.getIds()));
+    }
+
+    /**
+     * 列表的 ETag 用文章流的数据版本，任何文章写入后都会变，各节点数据一致时也一致；同一地址管理员和其他人看到的不同，ETag 里带上角色类别
+     * 文章流没加载好时列表是查库生成的，不做条件请求
+     */
+    private boolean feedNotModified(ServletWebRequest webRequest){
+        String dataVersion = feedService.dataVersion();
+        if (dataVersion == null) return false;
+        return webRequest.checkNotModified(roleClass() + "-" + dataVersion);
+    }
+
+    private static long toMillis(LocalDateTime time){
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    //列表只按 管理员/其他人 区分可见范围，缓存键也只分这两类
+    private String roleClass(){
+        UserContext.LoginUser loginUser = UserContext.get();
+        return loginUser != null && Objects.equals(loginUser.getRoleKey(), "admin") ? "admin" : "public";
+    }
 }
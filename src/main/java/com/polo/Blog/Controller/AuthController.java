@@ -2,8 +2,10 @@ package com.polo.Blog.Controller;
 
 import com.polo.Blog.Domain.DTO.LoginUserDTO;
 import com.polo.Blog.Service.UserService;
+import com.polo.Blog.Utils.RequestUtils;
 import com.polo.Blog.Utils.Result;
 import com.polo.Blog.Utils.UserContext;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,8 +16,8 @@ public class AuthController {
     private UserService userService;
 
     @PostMapping("/login")
-    public Result<Result> login(@RequestBody LoginUserDTO loginUserDTO){
-        return Result.success(userService.loginHandel(loginUserDTO));
+    public Result<Result> login(@RequestBody LoginUserDTO loginUserDTO, HttpServletRequest request){
+        return Result.success(userService.loginHandel(loginUserDTO, RequestUtils.clientIp(request)));
     }
     @PostMapping("/register")
     public Result<String> register(@RequestBody LoginUserDTO loginUserDTO, @RequestParam (defaultValue = "user") String isAuth){
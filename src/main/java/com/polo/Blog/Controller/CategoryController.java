@@ -1,9 +1,13 @@
 package com.polo.Blog.Controller;
 
 import com.polo.Blog.Domain.Entity.Category;
+import com.polo.Blog.Domain.OV.CategoryTreeVO;
 import com.polo.Blog.Service.CategoryService;
+import com.polo.Blog.Service.ResponseCacheService;
 import com.polo.Blog.Utils.Result;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -15,9 +19,19 @@ import java.util.List;
 public class CategoryController {
     @Autowired
     private CategoryService categoryService;
+    @Autowired
+    private ResponseCacheService responseCacheService;
 
+    //所有人看到的都一样，直接写缓存的字节
     @GetMapping("/hotList")
-    public Result<List<Category>> getHotCategoryList(){
-        return Result.success(categoryService.getHotCategoryList());
+    public ResponseEntity<byte[]> getHotCategoryList(HttpServletRequest request){
+        return responseCacheService.get(ResponseCacheService.Region.CATEGORY, "hotList",
+                () -> Result.success(categoryService.getHotCategoryList())).toResponse(request);
+    }
+
+    //分类树，带文章数和浏览量
+    @GetMapping("/tree")
+    public Result<List<CategoryTreeVO>> getCategoryTree(){
+        return Result.success(categoryService.getCategoryTree());
     }
 }
@@ -0,0 +1,50 @@
+package com.polo.Blog.Controller;
+
+import com.polo.Blog.Domain.DTO.CommentDTO;
+import com.polo.Blog.Domain.OV.CommentPageVO;
+import com.polo.Blog.Service.CommentLikeService;
+import com.polo.Blog.Service.CommentService;
+import com.polo.Blog.Utils.Result;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/comment")
+public class CommentController {
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private CommentLikeService commentLikeService;
+
+    //文章评论列表(游标分页，带回复预览)
+    @GetMapping("/list")
+    public Result<CommentPageVO> getCommentPage(@RequestParam Long articleId, @RequestParam (required = false) Long cursor, @RequestParam (defaultValue = "10") int size){
+        return Result.success(commentService.getCommentPage(articleId, cursor, size));
+    }
+
+    //展开某条根评论的全部回复
+    @GetMapping("/replies")
+    public Result<CommentPageVO> getReplyPage(@RequestParam Long rootId, @RequestParam (required = false) Long cursor, @RequestParam (defaultValue = "10") int size){
+        return Result.success(commentService.getReplyPage(rootId, cursor, size));
+    }
+
+    @PostMapping("/add")
+    public Result<String> addComment(@RequestBody CommentDTO commentDTO){
+        return Result.success(commentService.addComment(commentDTO));
+    }
+
+    @PostMapping("/delete")
+    public Result<String> deleteComment(@RequestParam Long id){
+        return Result.success(commentService.deleteComment(id));
+    }
+
+    @PostMapping("/like")
+    public Result<String> likeComment(@RequestParam Long id){
+        return Result.success(commentLikeService.likeComment(id));
+    }
+
+    @PostMapping("/unlike")
+    public Result<String> unlikeComment(@RequestParam Long id){
+        return Result.success(commentLikeService.unlikeComment(id));
+    }
+}
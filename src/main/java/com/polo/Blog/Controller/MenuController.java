@@ -0,0 +1,47 @@
+package com.polo.Blog.Controller;
+
+import com.polo.Blog.Annotation.RequiresPermission;
+import com.polo.Blog.Domain.OV.MenuVO;
+import com.polo.Blog.Service.CacheInvalidationService;
+import com.polo.Blog.Service.PermissionService;
+import com.polo.Blog.Utils.Result;
+import com.polo.Blog.Utils.UserContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/menu")
+public class MenuController {
+    @Autowired
+    private PermissionService permissionService;
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    //当前角色的菜单(前端动态路由)
+    @GetMapping
+    public Result<List<MenuVO>> getMenus(){
+        return Result.success(permissionService.getMenus(UserContext.get().getRoleKey()));
+    }
+
+    //当前角色的权限标识(前端按钮权限)
+    @GetMapping("/perms")
+    public Result<Set<String>> getPermissions(){
+        return Result.success(permissionService.getPermissions(UserContext.get().getRoleKey()));
+    }
+
+    //======================================管理员权限==========================================//
+    //修改菜单或角色权限后重新加载，其他节点随后跟着重新加载
+    @RequiresPermission("system:menu:reload")
+    @PostMapping("/reload")
+    public Result<String> reload(){
+        permissionService.reload();
+        cacheInvalidationService.broadcast(CacheInvalidationService.Region.ROLE, CacheInvalidationService.ALL);
+        return Result.success("重新加载成功");
+    }
+}
@@ -0,0 +1,51 @@
+package com.polo.Blog.Controller;
+
+import com.polo.Blog.Annotation.RequiresPermission;
+import com.polo.Blog.Domain.OV.SlowSqlVO;
+import com.polo.Blog.Domain.OV.SqlStatVO;
+import com.polo.Blog.Interceptor.SqlStatsInterceptor;
+import com.polo.Blog.Service.MetricsService;
+import com.polo.Blog.Utils.PrometheusWriter;
+import com.polo.Blog.Utils.Result;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+//======================================管理员权限==========================================//
+@RestController
+@RequestMapping("/metrics")
+@RequiresPermission("system:metrics:view")
+public class MetricsController {
+    @Autowired
+    private SqlStatsInterceptor sqlStatsInterceptor;
+    @Autowired
+    private MetricsService metricsService;
+
+    //Prometheus 抓取(在 WebConfig 中排除登录拦截，不校验权限)
+    @GetMapping(value = "/prometheus", produces = PrometheusWriter.CONTENT_TYPE)
+    public String prometheus(){
+        return metricsService.scrape();
+    }
+
+    //各 Mapper 方法的 SQL 耗时统计
+    @GetMapping("/sql")
+    public Result<List<SqlStatVO>> getSqlStats(){
+        return Result.success(sqlStatsInterceptor.getStats());
+    }
+
+    //最近的慢查询(带绑定参数)
+    @GetMapping("/sql/slow")
+    public Result<List<SlowSqlVO>> getSlowQueries(){
+        return Result.success(sqlStatsInterceptor.getSlowQueries());
+    }
+
+    @PostMapping("/sql/reset")
+    public Result<String> resetSqlStats(){
+        sqlStatsInterceptor.reset();
+        return Result.success("重置成功");
+    }
+}
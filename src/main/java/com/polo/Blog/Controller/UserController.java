@@ -1,15 +1,25 @@
 package com.polo.Blog.Controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.polo.Blog.Annotation.RequiresPermission;
 import com.polo.Blog.Domain.DTO.LoginUserDTO;
 import com.polo.Blog.Domain.DTO.UserDTO;
+import com.polo.Blog.Domain.OV.OnlineUserVO;
+import com.polo.Blog.Domain.OV.UserImportReportVO;
 import com.polo.Blog.Domain.OV.UserVO;
+import com.polo.Blog.Service.PresenceService;
+import com.polo.Blog.Service.UserImportService;
 import com.polo.Blog.Service.UserService;
 import com.polo.Blog.Utils.Result;
 import com.polo.Blog.Utils.UserContext;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @Data
 @RequestMapping("/user")
@@ -17,6 +27,10 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
     @Autowired
     private UserService userService;
+    @Autowired
+    private UserImportService userImportService;
+    @Autowired
+    private PresenceService presenceService;
 
     @GetMapping("/detail")
     public Result<UserVO> getUserDetail(){
@@ -37,21 +51,55 @@ public class UserController {
     }
     //=============管理员==========================//
 
+    @RequiresPermission("system:user:list")
     @GetMapping("/list")
     public Result<IPage<UserVO>> getUserList(@RequestParam (defaultValue = "1") int page, @RequestParam (defaultValue = "20") int size){
         return Result.success(userService.getUserList(page, size));
     }
 
+    @RequiresPermission("system:user:query")
     @GetMapping("/detailById")
     public Result<UserVO> getUserDetailById(@RequestParam Long id){
         return Result.success(userService.getUserDetailById(id));
     }
 
+    @RequiresPermission("system:user:remove")
     @PostMapping("/deleteById")
     public Result<String> deleteUserById(@RequestParam Long id){
         return Result.success(userService.deleteUserById(id));
     }
 
+    @RequiresPermission("system:user:list")
+    @GetMapping("/online/count")
+    public Result<Long> getOnlineCount(){
+        return Result.success(presenceService.onlineCount());
+    }
+
+    @RequiresPermission("system:user:list")
+    @GetMapping("/online/list")
+    public Result<IPage<OnlineUserVO>> getOnlineUsers(@RequestParam (defaultValue = "1") int page, @RequestParam (defaultValue = "20") int size){
+        return Result.success(presenceService.onlineUsers(page, size));
+    }
+
+    @RequiresPermission("system:user:list")
+    @GetMapping("/suggest")
+    public Result<List<UserVO>> suggestUser(@RequestParam (defaultValue = "") String keyword, @RequestParam (defaultValue = "10") int limit){
+        return Result.success(userService.suggestUser(keyword, limit));
+    }
+
+    //批量导入用户(CSV/NDJSON)，中断后带同一个 jobId 重新上传会从上次提交的行继续
+    @RequiresPermission("system:user:import")
+    @PostMapping("/import")
+    public Result<UserImportReportVO> importUsers(@RequestParam MultipartFile file, @RequestParam (required = false) String jobId,
+                                                  @RequestParam (defaultValue = "") String format) throws IOException {
+        String fileName = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        if (format.isEmpty()) format = fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl") ? "ndjson" : "csv";
+        try (InputStream in = file.getInputStream()) {
+            return Result.success(userImportService.importUsers(in, format, jobId));
+        }
+    }
+
+    @RequiresPermission("system:user:list")
     @GetMapping("/search")
     public Result<IPage<UserVO>> searchUserByKeyWord(@RequestParam (defaultValue = "1") int page, @RequestParam (defaultValue = "20") int size, @RequestParam String keyword){
         return Result.success(userService.searchUserByKeyWord(page, size, keyword));
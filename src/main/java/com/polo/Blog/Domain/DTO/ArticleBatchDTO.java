@@ -0,0 +1,14 @@
+package com.polo.Blog.Domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArticleBatchDTO {
+    private List<Long> ids;         // 文章id列表
+}
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -23,4 +25,6 @@ public class ArticleDTO {
     private String name;                     // 景点名
     private Double latitude;                 // 经度
     private Double longitude;                // 纬度
+    private List<String> tags;               // 标签名(为空表示不修改标签)
+    private Integer version;                 // 编辑时读到的版本号(更新时必填)
 }
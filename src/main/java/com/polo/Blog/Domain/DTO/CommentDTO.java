@@ -0,0 +1,18 @@
+package com.polo.Blog.Domain.DTO;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentDTO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long articleId;         // 文章id
+    private String content;         // 评论内容
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long toCommentId;       // 回复的评论id(为空表示发表根评论)
+}
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableLogic;
 import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.annotation.Version;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.AllArgsConstructor;
@@ -30,7 +31,8 @@ public class Article {
     private Integer status;                  // 状态(0:草稿 1:发布)
     private Integer isComment;               // 是否允许评论(0否 1是)
     private long viewCount;                  // 浏览量
-    private int version;                     // 乐观锁版本号
+    @Version
+    private Integer version;                 // 乐观锁版本号
     private LocalDateTime createTime;        // 创建时间
     private LocalDateTime updateTime;        // 更新时间
     private long createBy;                   // 创建人ID
@@ -1,4 +1,30 @@
 package com.polo.Blog.Domain.Entity;
 
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@TableName("landmark_article_daily_stats")
 public class ArticleDaily {
+    @TableId(type = IdType.ASSIGN_ID)
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;                         // 主键id
+    private Long articleId;                  // 文章id
+    private LocalDate date;                  // 统计日期
+    private Integer viewCount;               // 当日浏览量
+    private Integer likeCount;               // 当日点赞数
+    private Integer commentCount;            // 当日评论数
+    private Integer collectCount;            // 当日收藏数
+    private LocalDateTime createTime;        // 创建时间
 }
@@ -0,0 +1,28 @@
+package com.polo.Blog.Domain.Entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("landmark_article_outbox")
+public class ArticleEvent {
+    @TableId(type = IdType.AUTO)
+    private Long id;                         // 事件id(自增，同一篇文章按此顺序投递)
+    private Long articleId;                  // 文章id
+    private String eventType;                // 事件类型(PUBLISHED/UPDATED/STATE_CHANGED)
+    private String payload;                  // 文章快照 JSON(不含正文)
+    private Integer dispatched;              // 是否已投递(0否 1是)
+    private String nodeId;                   // 写入节点(只由它补发)
+    private LocalDateTime createTime;        // 创建时间
+    @TableField(exist = false)
+    private Article article;                 // 解析后的文章快照
+}
@@ -0,0 +1,15 @@
+package com.polo.Blog.Domain.Entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@TableName("landmark_article_tag")
+public class ArticleTagRelation {
+    private Long articleId;    // 文章id
+    private Long tagId;        // 标签id
+}
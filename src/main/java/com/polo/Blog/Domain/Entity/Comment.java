@@ -0,0 +1,36 @@
+package com.polo.Blog.Domain.Entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@TableName("landmark_comment")
+public class Comment {
+    @TableId(type = IdType.ASSIGN_ID)
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;                         // 评论id
+    private Long articleId;                  // 关联文章ID
+    private Long userId;                     // 评论人ID
+    private String content;                  // 评论内容
+    private Long rootId;                     // 根评论ID(-1 表示自己就是根评论)
+    private Long toCommentId;                // 回复目标评论ID
+    private Long toUserId;                   // 回复目标用户ID
+    private Integer likeCount;               // 点赞数
+    private String status;                   // 状态
+    private LocalDateTime createTime;        // 创建时间
+    private LocalDateTime updateTime;        // 更新时间
+    private Integer isDeleted;               // 逻辑删除
+    @TableField(exist = false)
+    private Integer replyTotal;              // 根评论下的回复总数(批量查回复时带出)
+}
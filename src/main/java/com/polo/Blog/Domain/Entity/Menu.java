@@ -0,0 +1,30 @@
+package com.polo.Blog.Domain.Entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@TableName("sys_menu")
+public class Menu {
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;                          // 菜单id
+    private Long parentId;                    // 父菜单id(0 表示顶级)
+    private String menuName;                  // 菜单名称
+    private String path;                      // 路由地址
+    private String component;                 // 组件路径
+    private String perms;                     // 权限标识
+    private String icon;                      // 菜单图标
+    private String menuType;                  // 类型(M:目录 C:菜单 F:按钮)
+    private Integer orderNum;                 // 显示顺序
+    private String status;                    // 状态(0:正常 1:停用)
+    private LocalDateTime createTime;         // 创建时间
+    private LocalDateTime updateTime;         // 更新时间
+}
@@ -0,0 +1,19 @@
+package com.polo.Blog.Domain.OV;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsRankVO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long articleId;                  // 文章id
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long categoryId;                 // 所属分类ID
+    private String title;                    // 文章标题
+    private long value;                      // 区间合计
+}
@@ -0,0 +1,17 @@
+package com.polo.Blog.Domain.OV;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsSeriesVO {
+    private List<String> labels = new ArrayList<>();   // 时间桶标签(日期 / 周一日期 / yyyy-MM)
+    private List<Long> values = new ArrayList<>();     // 对应桶的数值
+    private long total;                                // 区间合计
+}
@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.Date;
+import java.util.List;
 
 @Data
 @AllArgsConstructor
@@ -34,4 +35,6 @@ public class ArticleVO {
     private String name;                     // 景点名
     private Double latitude;                 // 经度
     private Double longitude;                // 纬度
+    private List<String> tags;               // 标签名
+    private Integer version;                 // 版本号(编辑提交时带回)
 }
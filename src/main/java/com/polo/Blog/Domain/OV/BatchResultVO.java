@@ -0,0 +1,17 @@
+package com.polo.Blog.Domain.OV;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResultVO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;                         // 操作对象id
+    private boolean success;                 // 是否成功(已是目标状态也算成功)
+    private String msg;                      // 结果说明
+}
@@ -0,0 +1,26 @@
+package com.polo.Blog.Domain.OV;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryTreeVO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;                                        // 分类id
+    private String name;                                    // 分类名
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long pid;                                       // 父分类id
+    private String description;                             // 描述
+    private Integer sort;                                   // 排序
+    private long articleCount;                              // 本分类已发布文章数
+    private long viewCount;                                 // 本分类及子分类的文章总浏览量
+    private List<CategoryTreeVO> children = new ArrayList<>(); // 子分类
+}
@@ -0,0 +1,20 @@
+package com.polo.Blog.Domain.OV;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentPageVO {
+    private List<CommentVO> records = new ArrayList<>(); // 当前页
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long nextCursor;                             // 下一页游标(本页最后一条评论id)
+    private boolean hasMore;                             // 是否还有下一页
+}
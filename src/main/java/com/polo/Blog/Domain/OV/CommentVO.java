@@ -0,0 +1,39 @@
+package com.polo.Blog.Domain.OV;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentVO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long id;                         // 评论id
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long articleId;                  // 文章id
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long userId;                     // 评论人id
+    private String username;                 // 评论人用户名
+    private String nickname;                 // 评论人昵称
+    private String avatar;                   // 评论人头像
+    private String content;                  // 评论内容
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long rootId;                     // 根评论id
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long toCommentId;                // 回复目标评论id
+    @JsonSerialize(using = ToStringSerializer.class)
+    private long toUserId;                   // 回复目标用户id
+    private String toNickname;               // 回复目标用户昵称
+    private Integer likeCount;               // 点赞数
+    private boolean liked;                   // 当前用户是否点过赞
+    private LocalDateTime createTime;        // 评论时间
+    private int replyTotal;                  // 回复总数(根评论)
+    private List<CommentVO> replies = new ArrayList<>(); // 回复预览(根评论)
+}
@@ -0,0 +1,25 @@
+package com.polo.Blog.Domain.OV;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 前端动态路由的菜单项(扁平列表，前端按 parentId 组装成树)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MenuVO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;                         // 菜单id
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long parentId;                   // 父菜单id，顶级为空
+    private String title;                    // 菜单名称
+    private String icon;                     // 菜单图标
+    private String path;                     // 路由地址
+    private String component;                // 组件路径
+    private String redirect;                 // 目录默认跳到第一个子菜单
+}
@@ -0,0 +1,21 @@
+package com.polo.Blog.Domain.OV;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OnlineUserVO {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long userId;                     // 用户id
+    private String username;                 // 用户名
+    private String loginIp;                  // 本次会话的 IP
+    private LocalDateTime loginTime;         // 本次会话开始时间(登录或过期后的第一次请求)
+    private LocalDateTime lastSeen;          // 最近一次请求时间(按心跳间隔合并)
+}
@@ -0,0 +1,19 @@
+package com.polo.Blog.Domain.OV;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlowSqlVO {
+    private String statement;                // Mapper 方法(MappedStatement id)
+    private String sql;                      // SQL(合并空白)
+    private List<String> params;             // 绑定参数的类型和长度(不含取值)
+    private double elapsedMs;                // 耗时
+    private LocalDateTime time;              // 发生时间
+}
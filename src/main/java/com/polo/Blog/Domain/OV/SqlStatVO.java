@@ -0,0 +1,20 @@
+package com.polo.Blog.Domain.OV;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SqlStatVO {
+    private String statement;                // Mapper 方法(MappedStatement id)
+    private long count;                      // 执行次数
+    private long errors;                     // 失败次数
+    private long rows;                       // 返回/影响行数合计
+    private double meanMs;                   // 平均耗时
+    private double p50Ms;                    // 中位数耗时
+    private double p95Ms;                    // 95 分位耗时
+    private double p99Ms;                    // 99 分位耗时
+    private double maxMs;                    // 最大耗时
+}
@@ -0,0 +1,14 @@
+package com.polo.Blog.Domain.OV;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportErrorVO {
+    private long line;                       // 文件中的行号(从 1 开始，含表头)
+    private String username;                 // 用户名(解析失败时为空)
+    private String msg;                      // 失败原因
+}
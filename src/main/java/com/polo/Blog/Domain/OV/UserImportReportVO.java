@@ -0,0 +1,21 @@
+package com.polo.Blog.Domain.OV;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportReportVO {
+    private String jobId;                    // 导入任务id，续传时带上
+    private long skipped;                    // 之前已处理、本次跳过的行数
+    private long imported;                   // 本次导入成功数
+    private long failed;                     // 本次失败行数
+    private long lastLine;                   // 已提交的最后一行行号
+    private boolean truncated;               // 失败明细是否超过上限被截断
+    private List<UserImportErrorVO> errors = new ArrayList<>(); // 失败明细
+}
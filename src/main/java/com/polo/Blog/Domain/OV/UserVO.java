@@ -27,6 +27,7 @@ public class UserVO {
     @JsonIgnore
     private String status;
     private String statusText;
+    private boolean online;              // 是否在线(内存登记，不读 status 字段)
     private String roleName;
     private String roleKey;
     private LocalDateTime createTime;
@@ -1,14 +1,35 @@
 package com.polo.Blog.Interceptor;
 
+import com.polo.Blog.Annotation.RequiresPermission;
+import com.polo.Blog.Service.PermissionService;
+import com.polo.Blog.Service.PresenceService;
 import com.polo.Blog.Utils.JwtUtils; // 假设你有这个工具类
+import com.polo.Blog.Utils.RequestUtils;
 import com.polo.Blog.Utils.UserContext;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
 public class LoginInterceptor implements HandlerInterceptor {
+    //接口不需要权限时的标记
+    private static final int NO_PERMISSION = -1;
+
+    @Autowired
+    private PermissionService permissionService;
+    @Autowired
+    private PresenceService presenceService;
+    //接口方法 -> 权限位下标，注解只解析一次
+    private final Map<Method, Integer> requiredBits = new ConcurrentHashMap<>();
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
@@ -34,23 +55,45 @@ public class LoginInterceptor implements HandlerInterceptor {
             Claims claims = JwtUtils.parseToken(token);
             String username = null;
             String roleKey = null;
+            Long userId = null;
             if (claims != null) {
                 username = claims.getSubject();
                 roleKey = claims.get("role", String.class);
+                String uid = claims.get("uid", String.class);
+                userId = uid == null ? null : Long.valueOf(uid);
             }
 
             // 5. 存入 ThreadLocal，供后续 Controller 使用
-            UserContext.set(new UserContext.LoginUser(username, roleKey));
-            return true; // 放行
+            UserContext.set(new UserContext.LoginUser(username, roleKey, userId));
+            // 刷新在线状态 (心跳间隔内只是一次 Map 读取)
+            presenceService.touch(userId, username, RequestUtils.clientIp(request));
         } catch (Exception e) {
             response.setStatus(401);
             return false;
         }
+
+        // 6. 接口权限校验 (@RequiresPermission)
+        if (handler instanceof HandlerMethod handlerMethod) {
+            int bit = requiredBits.computeIfAbsent(handlerMethod.getMethod(), method -> resolveBit(handlerMethod));
+            if (bit != NO_PERMISSION && !permissionService.hasPermission(UserContext.get().getRoleKey(), bit)) {
+                response.setStatus(403);
+                return false;
+            }
+        }
+        return true; // 放行
+    }
+
+    private int resolveBit(HandlerMethod handlerMethod) {
+        RequiresPermission annotation = handlerMethod.getMethodAnnotation(RequiresPermission.class);
+        if (annotation == null) {
+            annotation = handlerMethod.getBeanType().getAnnotation(RequiresPermission.class);
+        }
+        return annotation == null ? NO_PERMISSION : permissionService.permissionBit(annotation.value());
     }
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
-        // 6. 必须清理 ThreadLocal，防止内存泄漏
+        // 7. 必须清理 ThreadLocal，防止内存泄漏
         UserContext.remove();
     }
 }
@@ -0,0 +1,161 @@
+package com.polo.Blog.Interceptor;
+
+import com.polo.Blog.Config.RateLimitProperties;
+import com.polo.Blog.Utils.PrometheusWriter;
+import com.polo.Blog.Utils.RequestUtils;
+import com.polo.Blog.Utils.UserContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按用户(已登录)或客户端 IP 限流，每个 key 一个 AtomicLong 记录"理论到达时间"(GCRA，等价于令牌桶)
+ * 判断只有一次 CAS，不加锁；超限直接返回 429 和 Retry-After，不进 Controller
+ */
+@Slf4j
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+    //跟踪的 key 数达到上限后新 key 共用的桶
+    private static final String OVERFLOW_KEY = "overflow";
+
+    private final boolean enabled;
+    private final int maxKeys;
+    private final List<Limiter> limiters = new ArrayList<>();
+    //nanoTime 可能为负，统一减去启动时刻
+    private final long origin = System.nanoTime();
+
+    public RateLimitInterceptor(RateLimitProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.maxKeys = properties.getMaxKeys();
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            if (rule.getPermitsPerSecond() <= 0 || rule.getPaths().isEmpty()) {
+                log.warn("限流规则 {} 未配置路径或速率，忽略", rule.getName());
+                continue;
+            }
+            limiters.add(new Limiter(rule));
+        }
+    }
+
+    /**
+     * 所有规则覆盖的路径，拦截器只注册到这些路径上
+     */
+    public List<String> getPaths() {
+        List<String> paths = new ArrayList<>();
+        limiters.forEach(limiter -> paths.addAll(limiter.paths));
+        return paths;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || "OPTIONS".equalsIgnoreCase(request.getMethod())) return true;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Limiter limiter = match(path);
+        if (limiter == null) return true;
+
+        long waitNanos = limiter.acquire(key(request), now());
+        if (waitNanos <= 0) {
+            limiter.allowed.increment();
+            return true;
+        }
+        limiter.throttled.increment();
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+        return false;
+    }
+
+    /**
+     * 导出 rate_limit_requests_total，按规则和是否放行
+     */
+    public void exportTo(PrometheusWriter writer) {
+        if (limiters.isEmpty()) return;
+        writer.type("rate_limit_requests_total", "counter", "Requests checked by rate limit rule");
+        for (Limiter limiter : limiters) {
+            writer.sample("rate_limit_requests_total", limiter.allowed.sum(), "rule", limiter.name, "result", "allowed");
+            writer.sample("rate_limit_requests_total", limiter.throttled.sum(), "rule", limiter.name, "result", "throttled");
+        }
+        writer.type("rate_limit_keys", "gauge", "Users or IPs tracked by rate limit rule");
+        limiters.forEach(limiter -> writer.sample("rate_limit_keys", limiter.buckets.size(), "rule", limiter.name));
+    }
+
+    /**
+     * 桶已经回满的 key 和没有记录是一样的，定时清掉
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-ms:60000}")
+    public void sweep() {
+        long now = now();
+        for (Limiter limiter : limiters) {
+            limiter.buckets.values().removeIf(tat -> tat.get() <= now);
+        }
+    }
+
+    private Limiter match(String path) {
+        for (Limiter limiter : limiters) {
+            for (String pattern : limiter.paths) {
+                if (MATCHER.match(pattern, path)) return limiter;
+            }
+        }
+        return null;
+    }
+
+    private static String key(HttpServletRequest request) {
+        UserContext.LoginUser loginUser = UserContext.get();
+        if (loginUser != null) {
+            if (loginUser.getUserId() != null) return "u:" + loginUser.getUserId();
+            if (loginUser.getUsername() != null) return "n:" + loginUser.getUsername();
+        }
+        return "ip:" + RequestUtils.clientIp(request);
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+
+    private class Limiter {
+        final String name;
+        final List<String> paths;
+        //每个令牌的间隔，以及允许提前的最大量(burst 个间隔)
+        final long intervalNanos;
+        final long toleranceNanos;
+        final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        final LongAdder allowed = new LongAdder();
+        final LongAdder throttled = new LongAdder();
+
+        Limiter(RateLimitProperties.Rule rule) {
+            this.name = rule.getName() == null ? String.join(",", rule.getPaths()) : rule.getName();
+            this.paths = List.copyOf(rule.getPaths());
+            this.intervalNanos = Math.max(1, (long) (1e9 / rule.getPermitsPerSecond()));
+            this.toleranceNanos = intervalNanos * Math.max(1, rule.getBurst());
+        }
+
+        /**
+         * @return 0 表示放行，否则是还要等待的纳秒数
+         */
+        long acquire(String key, long now) {
+            AtomicLong tat = buckets.get(key);
+            if (tat == null) {
+                //跟踪的 key 满了，新来的共用一个桶，不至于把正常用户全部拒掉
+                tat = buckets.computeIfAbsent(buckets.size() >= maxKeys ? OVERFLOW_KEY : key, k -> new AtomicLong());
+            }
+            while (true) {
+                long current = tat.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long wait = next - now - toleranceNanos;
+                if (wait > 0) return wait;
+                if (tat.compareAndSet(current, next)) return 0;
+            }
+        }
+    }
+}
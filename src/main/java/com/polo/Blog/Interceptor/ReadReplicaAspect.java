@@ -0,0 +1,27 @@
+package com.polo.Blog.Interceptor;
+
+import com.polo.Blog.Utils.DataSourceContext;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * 标了 @ReadReplica 的方法执行期间把路由切到从库，外层已经指定了路由的不覆盖
+ * @CounterWrite 方法同样处理：写语句由 WriteRoutingInterceptor 切回主库，上一层是从库路由所以不开启粘滞窗口
+ */
+@Aspect
+@Component
+public class ReadReplicaAspect {
+
+    @Around("@annotation(com.polo.Blog.Annotation.ReadReplica) || @annotation(com.polo.Blog.Annotation.CounterWrite)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (DataSourceContext.current() != null) return joinPoint.proceed();
+        DataSourceContext.Route previous = DataSourceContext.use(DataSourceContext.Route.REPLICA);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            DataSourceContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.polo.Blog.Interceptor;
+
+import com.polo.Blog.Utils.LatencyHistogram;
+import com.polo.Blog.Utils.PrometheusWriter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按 请求方法 + Controller 映射路径 + 状态码段 记录耗时直方图，另记正在处理的请求数
+ * 路径用映射模板(/article/detail)而不是实际 URL，避免路径参数把标签撑爆
+ * 每个请求只多两次 nanoTime、两次 Map 查询和几次 LongAdder 累加
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    //没有匹配到 Controller 的请求(404、静态资源等)合并成一个
+    private static final String UNMATCHED = "UNMATCHED";
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final Map<String, Map<String, EndpointStats>> endpoints = new ConcurrentHashMap<>();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        int status = 500;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            inFlight.decrementAndGet();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            stats(request.getMethod(), pattern == null ? UNMATCHED : pattern.toString()).record(status, System.nanoTime() - start);
+        }
+    }
+
+    private EndpointStats stats(String method, String uri) {
+        //先直接 get，已有的接口不走 computeIfAbsent 的加锁路径
+        Map<String, EndpointStats> byUri = endpoints.get(method);
+        if (byUri == null) byUri = endpoints.computeIfAbsent(method, key -> new ConcurrentHashMap<>());
+        EndpointStats stats = byUri.get(uri);
+        return stats != null ? stats : byUri.computeIfAbsent(uri, key -> new EndpointStats());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    /**
+     * 导出 http_server_requests_seconds 直方图和 in-flight 计数
+     */
+    public void exportTo(PrometheusWriter writer) {
+        writer.type("http_server_requests_in_flight", "gauge", "Requests currently being processed");
+        writer.sample("http_server_requests_in_flight", inFlight.get());
+        writer.type("http_server_requests_seconds", "histogram", "Request latency by method, mapped uri and status class");
+        endpoints.forEach((method, byUri) -> byUri.forEach((uri, stats) -> {
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                LatencyHistogram histogram = stats.byStatusClass[i];
+                if (histogram.count() == 0) continue;
+                writer.histogram("http_server_requests_seconds", histogram,
+                        "method", method, "uri", uri, "status", STATUS_CLASSES[i]);
+            }
+        }));
+    }
+
+    private static class EndpointStats {
+        final LatencyHistogram[] byStatusClass = new LatencyHistogram[STATUS_CLASSES.length];
+
+        EndpointStats() {
+            for (int i = 0; i < byStatusClass.length; i++) byStatusClass[i] = new LatencyHistogram();
+        }
+
+        void record(int status, long nanos) {
+            int index = Math.min(Math.max(status / 100 - 1, 0), STATUS_CLASSES.length - 1);
+            byStatusClass[index].record(nanos);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.polo.Blog.Interceptor;
+
+import com.polo.Blog.Domain.OV.SlowSqlVO;
+import com.polo.Blog.Domain.OV.SqlStatVO;
+import com.polo.Blog.Utils.LatencyHistogram;
+import com.polo.Blog.Utils.PrometheusWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 Mapper 方法统计 SQL 耗时直方图、返回行数和失败次数，超过阈值的记录 SQL 和绑定参数的类型、长度
+ * 参数里有密码哈希、邮箱等，日志和 /metrics 都只出类型不出取值
+ * 正常路径只有 nanoTime 和几次 LongAdder 累加，参数只在慢查询时才解析
+ */
+@Slf4j
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class SqlStatsInterceptor implements Interceptor {
+    private final long slowNanos;
+    private final int slowSamples;
+    private final Map<String, StatementStats> stats = new ConcurrentHashMap<>();
+    //最近的慢查询，满了丢最早的
+    private final Deque<SlowSqlVO> slowQueries = new ArrayDeque<>();
+
+    public SqlStatsInterceptor(long slowMillis, int slowSamples) {
+        this.slowNanos = slowMillis * 1_000_000L;
+        this.slowSamples = slowSamples;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        StatementStats statementStats = stats.get(ms.getId());
+        if (statementStats == null) statementStats = stats.computeIfAbsent(ms.getId(), id -> new StatementStats());
+        long start = System.nanoTime();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            statementStats.latency.record(elapsed);
+            if (failed) {
+                statementStats.errors.increment();
+            } else if (result instanceof List<?> list) {
+                statementStats.rows.add(list.size());
+            } else if (result instanceof Integer affected) {
+                statementStats.rows.add(affected);
+            }
+            if (elapsed >= slowNanos) {
+                recordSlow(ms, args, elapsed);
+            }
+        }
+    }
+
+    /**
+     * 各 Mapper 方法的统计，按总耗时倒序
+     */
+    public List<SqlStatVO> getStats() {
+        List<SqlStatVO> result = new ArrayList<>(stats.size());
+        stats.forEach((statement, s) -> result.add(new SqlStatVO(statement, s.latency.count(), s.errors.sum(), s.rows.sum(),
+                s.latency.meanMillis(), s.latency.percentileMillis(0.5), s.latency.percentileMillis(0.95),
+                s.latency.percentileMillis(0.99), s.latency.maxNanos() / 1e6)));
+        result.sort(Comparator.comparingDouble((SqlStatVO vo) -> vo.getMeanMs() * vo.getCount()).reversed());
+        return result;
+    }
+
+    /**
+     * 最近的慢查询，最新在前
+     */
+    public List<SlowSqlVO> getSlowQueries() {
+        synchronized (slowQueries) {
+            List<SlowSqlVO> result = new ArrayList<>(slowQueries);
+            Collections.reverse(result);
+            return result;
+        }
+    }
+
+    /**
+     * 导出 mybatis_statement_seconds 直方图和行数、失败次数
+     */
+    public void exportTo(PrometheusWriter writer) {
+        writer.type("mybatis_statement_seconds", "histogram", "SQL latency by mapped statement");
+        stats.forEach((statement, s) -> writer.histogram("mybatis_statement_seconds", s.latency, "statement", statement));
+        writer.type("mybatis_statement_rows_total", "counter", "Rows returned or affected by mapped statement");
+        stats.forEach((statement, s) -> writer.sample("mybatis_statement_rows_total", s.rows.sum(), "statement", statement));
+        writer.type("mybatis_statement_errors_total", "counter", "Failed executions by mapped statement");
+        stats.forEach((statement, s) -> writer.sample("mybatis_statement_errors_total", s.errors.sum(), "statement", statement));
+    }
+
+    public void reset() {
+        stats.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    private void recordSlow(MappedStatement ms, Object[] args, long elapsed) {
+        try {
+            Object parameter = args[1];
+            BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(parameter);
+            String sql = boundSql.getSql().replaceAll("\\s+", " ").trim();
+            SlowSqlVO sample = new SlowSqlVO(ms.getId(), sql, boundParams(ms.getConfiguration(), boundSql, parameter),
+                    elapsed / 1e6, LocalDateTime.now());
+            log.warn("慢查询 {} 耗时 {} ms: {} 参数类型: {}", sample.getStatement(), String.format("%.1f", sample.getElapsedMs()), sql, sample.getParams());
+            synchronized (slowQueries) {
+                if (slowQueries.size() >= slowSamples) slowQueries.pollFirst();
+                slowQueries.addLast(sample);
+            }
+        } catch (Exception e) {
+            log.debug("慢查询参数解析失败: {}", e.getMessage());
+        }
+    }
+
+    private static List<String> boundParams(Configuration configuration, BoundSql boundSql, Object parameter) {
+        List<String> params = new ArrayList<>();
+        MetaObject metaObject = parameter == null ? null : configuration.newMetaObject(parameter);
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            if (mapping.getMode() == ParameterMode.OUT) continue;
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameter == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                value = parameter;
+            } else {
+                value = metaObject.getValue(property);
+            }
+            params.add(describe(value));
+        }
+        return params;
+    }
+
+    /**
+     * 只保留类型和长度，如 String(60)、byte[](16)、Long
+     */
+    private static String describe(Object value) {
+        if (value == null) return "null";
+        if (value instanceof CharSequence text) return "String(" + text.length() + ")";
+        if (value instanceof byte[] bytes) return "byte[](" + bytes.length + ")";
+        if (value instanceof Collection<?> collection) return value.getClass().getSimpleName() + "(" + collection.size() + ")";
+        return value.getClass().getSimpleName();
+    }
+
+    private static class StatementStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,38 @@
+package com.polo.Blog.Interceptor;
+
+import com.polo.Blog.Config.RoutingDataSource;
+import com.polo.Blog.Utils.DataSourceContext;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+/**
+ * 写语句强制走主库(没有事务时连接在语句执行时才取，这里切过去就生效)
+ * 不是 @ReadReplica 方法里顺带的写，成功后开启当前用户的读己之写窗口
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class WriteRoutingInterceptor implements Interceptor {
+    private final RoutingDataSource routingDataSource;
+
+    public WriteRoutingInterceptor(RoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        DataSourceContext.Route previous = DataSourceContext.use(DataSourceContext.Route.PRIMARY);
+        Object result;
+        try {
+            result = invocation.proceed();
+        } finally {
+            DataSourceContext.restore(previous);
+        }
+        if (previous != DataSourceContext.Route.REPLICA) routingDataSource.markWrite();
+        return result;
+    }
+}
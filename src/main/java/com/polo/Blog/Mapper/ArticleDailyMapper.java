@@ -0,0 +1,32 @@
+package com.polo.Blog.Mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.polo.Blog.Domain.Entity.ArticleDaily;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface ArticleDailyMapper extends BaseMapper<ArticleDaily> {
+
+    /**
+     * 批量累加当日统计，(article_id, date) 已存在时在原值上加增量
+     * @param list 每篇文章的增量
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO landmark_article_daily_stats " +
+            "(id, article_id, date, view_count, like_count, comment_count, collect_count, create_time) VALUES " +
+            "<foreach collection='list' item='s' separator=','>" +
+            "(#{s.id}, #{s.articleId}, #{s.date}, #{s.viewCount}, #{s.likeCount}, #{s.commentCount}, #{s.collectCount}, #{s.createTime})" +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE " +
+            "view_count = view_count + VALUES(view_count), " +
+            "like_count = like_count + VALUES(like_count), " +
+            "comment_count = comment_count + VALUES(comment_count), " +
+            "collect_count = collect_count + VALUES(collect_count)" +
+            "</script>")
+    int upsertIncrements(@Param("list") List<ArticleDaily> list);
+}
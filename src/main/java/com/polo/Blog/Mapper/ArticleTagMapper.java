@@ -2,8 +2,25 @@ package com.polo.Blog.Mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.polo.Blog.Domain.Entity.ArticleTag;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface ArticleTagMapper extends BaseMapper<ArticleTag> {
+
+    /**
+     * 一条语句批量创建标签，uk_name 冲突(别的请求刚建了同名标签)的直接忽略
+     * @param list 新标签
+     * @return 实际插入行数
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO landmark_tag (id, name, create_time, update_time, is_deleted) VALUES " +
+            "<foreach collection='list' item='t' separator=','>" +
+            "(#{t.id}, #{t.name}, #{t.createTime}, #{t.updateTime}, 0)" +
+            "</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("list") List<ArticleTag> list);
 }
@@ -0,0 +1,38 @@
+package com.polo.Blog.Mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.polo.Blog.Domain.Entity.ArticleTagRelation;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+
+@Mapper
+public interface ArticleTagRelationMapper extends BaseMapper<ArticleTagRelation> {
+
+    /**
+     * 一条语句给文章批量添加标签，已存在的关联忽略
+     * @param articleId 文章id
+     * @param tagIds 标签id
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO landmark_article_tag (article_id, tag_id) VALUES " +
+            "<foreach collection='tagIds' item='tagId' separator=','>(#{articleId}, #{tagId})</foreach>" +
+            "</script>")
+    int insertBatch(@Param("articleId") Long articleId, @Param("tagIds") Collection<Long> tagIds);
+
+    /**
+     * 一条语句删除文章的多个标签
+     * @param articleId 文章id
+     * @param tagIds 标签id
+     * @return 删除行数
+     */
+    @Delete("<script>" +
+            "DELETE FROM landmark_article_tag WHERE article_id = #{articleId} AND tag_id IN " +
+            "<foreach collection='tagIds' item='tagId' open='(' separator=',' close=')'>#{tagId}</foreach>" +
+            "</script>")
+    int deleteBatch(@Param("articleId") Long articleId, @Param("tagIds") Collection<Long> tagIds);
+}
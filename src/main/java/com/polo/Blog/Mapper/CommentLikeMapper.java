@@ -0,0 +1,40 @@
+package com.polo.Blog.Mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.polo.Blog.Domain.Entity.CommentLike;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface CommentLikeMapper extends BaseMapper<CommentLike> {
+
+    /**
+     * 批量写入点赞记录，uk_comment_user 冲突的直接忽略
+     * @param list 点赞记录
+     * @return 实际插入行数
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO landmark_comment_like (id, comment_id, user_id, create_time) VALUES " +
+            "<foreach collection='list' item='l' separator=','>" +
+            "(#{l.id}, #{l.commentId}, #{l.userId}, #{l.createTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("list") List<CommentLike> list);
+
+    /**
+     * 批量删除点赞记录
+     * @param list 只需要 commentId 和 userId
+     * @return 实际删除行数
+     */
+    @Delete("<script>" +
+            "DELETE FROM landmark_comment_like WHERE (comment_id, user_id) IN " +
+            "<foreach collection='list' item='l' open='(' separator=',' close=')'>" +
+            "(#{l.commentId}, #{l.userId})" +
+            "</foreach>" +
+            "</script>")
+    int deleteBatch(@Param("list") List<CommentLike> list);
+}
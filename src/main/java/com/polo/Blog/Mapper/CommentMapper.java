@@ -0,0 +1,45 @@
+package com.polo.Blog.Mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.polo.Blog.Domain.Entity.Comment;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface CommentMapper extends BaseMapper<Comment> {
+
+    /**
+     * 一次查出一页根评论的回复预览：每个根评论取最早的 limit 条，并带出回复总数
+     * @param rootIds 根评论id
+     * @param limit 每个根评论的预览条数
+     * @return 回复列表(按根评论、id 升序)
+     */
+    @Select("<script>" +
+            "SELECT * FROM (" +
+            "SELECT c.*, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.root_id ORDER BY c.id) AS rn, " +
+            "COUNT(*) OVER (PARTITION BY c.root_id) AS reply_total " +
+            "FROM landmark_comment c " +
+            "WHERE c.is_deleted = 0 AND c.root_id IN " +
+            "<foreach collection='rootIds' item='rootId' open='(' separator=',' close=')'>#{rootId}</foreach>" +
+            ") t WHERE t.rn &lt;= #{limit} ORDER BY t.root_id, t.id" +
+            "</script>")
+    List<Comment> selectReplyPreview(@Param("rootIds") Collection<Long> rootIds, @Param("limit") int limit);
+
+    /**
+     * 按点赞记录重新统计多条评论的点赞数，多个节点、重复点赞被 INSERT IGNORE 跳过时计数也和记录一致
+     * @param ids 评论id
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE landmark_comment c SET like_count = " +
+            "(SELECT COUNT(*) FROM landmark_comment_like l WHERE l.comment_id = c.id) WHERE c.id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int recountLikes(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,9 @@
+package com.polo.Blog.Mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.polo.Blog.Domain.Entity.RoleMenu;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface RoleMenuMapper extends BaseMapper<RoleMenu> {
+}
@@ -2,12 +2,14 @@ package com.polo.Blog;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Created By YB(Smilling1123) 2025-12-28
  * Github: https://github.com/smiling11123
  */
 @SpringBootApplication
+@EnableScheduling
 public class MyBlogApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,61 @@
+package com.polo.Blog.Runner;
+
+import com.polo.Blog.Domain.OV.UserImportErrorVO;
+import com.polo.Blog.Domain.OV.UserImportReportVO;
+import com.polo.Blog.Service.UserImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 命令行导入用户，导入完退出进程：
+ * java -jar Blog.jar --spring.main.web-application-type=none --import-users=users.csv [--import-job=任务id]
+ * 中断后用同一个任务id再执行一次会从上次提交的行继续
+ */
+@Slf4j
+@Component
+public class UserImportRunner implements ApplicationRunner {
+    private static final String FILE_OPTION = "import-users";
+    private static final String JOB_OPTION = "import-job";
+
+    @Autowired
+    private UserImportService userImportService;
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> files = args.getOptionValues(FILE_OPTION);
+        if (files == null || files.isEmpty()) return;
+        Path file = Path.of(files.get(0));
+        List<String> jobIds = args.getOptionValues(JOB_OPTION);
+        //没指定任务id时用文件名，重复执行同一个文件自动续传
+        String jobId = jobIds == null || jobIds.isEmpty() ? file.getFileName().toString() : jobIds.get(0);
+        String name = file.getFileName().toString().toLowerCase();
+        String format = name.endsWith(".ndjson") || name.endsWith(".jsonl") ? "ndjson" : "csv";
+        int exitCode = 0;
+        try (InputStream in = Files.newInputStream(file)) {
+            UserImportReportVO report = userImportService.importUsers(in, format, jobId);
+            for (UserImportErrorVO error : report.getErrors()) {
+                log.warn("第 {} 行 {} 导入失败: {}", error.getLine(), error.getUsername(), error.getMsg());
+            }
+            log.info("导入任务 {}: 成功 {}，失败 {}，跳过 {}，已处理到第 {} 行", report.getJobId(), report.getImported(),
+                    report.getFailed(), report.getSkipped(), report.getLastLine());
+            if (report.getFailed() > 0) exitCode = 2;
+        } catch (Exception e) {
+            log.error("导入用户失败: {}", e.getMessage(), e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
@@ -0,0 +1,111 @@
+package com.polo.Blog.Runner;
+
+import com.polo.Blog.Utils.JwtUtils;
+import com.polo.Blog.Utils.PrometheusWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 启动预热：在 ApplicationReadyEvent(就绪)之前用本机 HTTP 把主要只读接口各请求若干次，
+ * 让拦截器、JWT 解析、Jackson、MyBatis 和懒加载的 Bean 在接流量前完成初始化和 JIT
+ * 文章流、分类统计等内存索引在 ApplicationStartedEvent 加载，早于 Runner，预热走的是和线上一样的内存路径而不是冷库回退
+ * Runner 执行完之前就绪状态一直是 REFUSING_TRAFFIC
+ * 同时记录启动耗时和每个接口第一次/最后一次请求的耗时，日志输出并由 /metrics/prometheus 导出
+ */
+@Slf4j
+@Component
+public class WarmUpRunner implements ApplicationRunner {
+    //只预热没有副作用的接口(详情会记浏览量、搜索会写搜索历史，不在这里)
+    private static final List<String> PATHS = List.of("/article/list", "/article/hotList", "/article/trendingList",
+            "/category/hotList", "/category/tree");
+
+    private final ApplicationContext context;
+    @Value("${warm-up.enabled:false}")
+    private boolean enabled;
+    @Value("${warm-up.iterations:20}")
+    private int iterations;
+
+    private volatile long startedMillis = -1;
+    private volatile long readyMillis = -1;
+    private final Map<String, long[]> requestNanos = new LinkedHashMap<>();
+
+    public WarmUpRunner(ApplicationContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        startedMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        //命令行导入等不启动 Web 容器时跳过
+        if (!enabled || !(context instanceof WebServerApplicationContext webContext) || webContext.getWebServer() == null) return;
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        String base = "http://127.0.0.1:" + webContext.getWebServer().getPort();
+        //预热用的普通用户 Token，没有用户id，不计入在线用户
+        String token = JwtUtils.generateToken("warm-up", "user");
+        for (String path : PATHS) {
+            long[] nanos = new long[]{-1, -1};
+            for (int i = 0; i < iterations; i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                        .header("Authorization", token)
+                        .timeout(Duration.ofSeconds(10))
+                        .GET().build();
+                long start = System.nanoTime();
+                try {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                } catch (Exception e) {
+                    log.warn("预热 {} 失败: {}", path, e.getMessage());
+                    break;
+                }
+                long elapsed = System.nanoTime() - start;
+                if (i == 0) nanos[0] = elapsed;
+                nanos[1] = elapsed;
+            }
+            synchronized (requestNanos) {
+                requestNanos.put(path, nanos);
+            }
+            log.info("预热 {}: 第一次 {} ms，第 {} 次 {} ms", path, String.format("%.1f", nanos[0] / 1e6), iterations,
+                    String.format("%.1f", nanos[1] / 1e6));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ready() {
+        readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("启动耗时: 容器启动完成 {} ms，就绪 {} ms(JVM 启动起算)", startedMillis, readyMillis);
+    }
+
+    /**
+     * 导出 app_startup_seconds(started=内存索引加载完、Runner 执行前，ready=预热和就绪事件之后) 和 warm_up_request_seconds
+     * warm_up_request_seconds 的 first 就是每个接口冷启动后第一次请求的耗时
+     */
+    public void exportTo(PrometheusWriter writer) {
+        writer.type("app_startup_seconds", "gauge", "Time from JVM start to the startup phase");
+        if (startedMillis >= 0) writer.sample("app_startup_seconds", startedMillis / 1e3, "phase", "started");
+        if (readyMillis >= 0) writer.sample("app_startup_seconds", readyMillis / 1e3, "phase", "ready");
+        synchronized (requestNanos) {
+            if (requestNanos.isEmpty()) return;
+            writer.type("warm_up_request_seconds", "gauge", "Warm-up request latency, first and last pass");
+            requestNanos.forEach((path, nanos) -> {
+                writer.sample("warm_up_request_seconds", nanos[0] / 1e9, "path", path, "pass", "first");
+                writer.sample("warm_up_request_seconds", nanos[1] / 1e9, "path", path, "pass", "last");
+            });
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.polo.Blog.Service;
+
+import com.polo.Blog.Domain.OV.AnalyticsRankVO;
+import com.polo.Blog.Domain.OV.AnalyticsSeriesVO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 流量统计：内存中按日/周/月预聚合，查询不访问数据库
+ */
+public interface AnalyticsService {
+
+    /**
+     * 统计指标
+     */
+    enum Metric { VIEW, LIKE, COMMENT }
+
+    /**
+     * 时间粒度
+     */
+    enum Granularity { DAY, WEEK, MONTH }
+
+    /**
+     * 记录当日增量（先按天累计在内存，定时批量写入每日统计表）
+     * @param articleId 文章id
+     * @param metric 指标
+     */
+    void record(Long articleId, Metric metric);
+
+    /**
+     * 登记文章的分类和标题，发布、修改文章后调用
+     * @param articleId 文章id
+     * @param categoryId 分类id
+     * @param title 标题
+     */
+    void registerArticle(Long articleId, Long categoryId, String title);
+
+    /**
+     * 单篇文章的时间序列
+     * @param articleId 文章id
+     * @param from 开始日期（含）
+     * @param to 结束日期（含）
+     * @param granularity 时间粒度
+     * @param metric 指标
+     * @return 时间序列
+     */
+    AnalyticsSeriesVO getArticleSeries(Long articleId, LocalDate from, LocalDate to, Granularity granularity, Metric metric);
+
+    /**
+     * 分类的时间序列
+     * @param categoryId 分类id
+     * @param from 开始日期（含）
+     * @param to 结束日期（含）
+     * @param granularity 时间粒度
+     * @param metric 指标
+     * @return 时间序列
+     */
+    AnalyticsSeriesVO getCategorySeries(Long categoryId, LocalDate from, LocalDate to, Granularity granularity, Metric metric);
+
+    /**
+     * 全站的时间序列
+     * @param from 开始日期（含）
+     * @param to 结束日期（含）
+     * @param granularity 时间粒度
+     * @param metric 指标
+     * @return 时间序列
+     */
+    AnalyticsSeriesVO getSiteSeries(LocalDate from, LocalDate to, Granularity granularity, Metric metric);
+
+    /**
+     * 区间内指标最高的文章
+     * @param from 开始日期（含）
+     * @param to 结束日期（含）
+     * @param metric 指标
+     * @param limit 返回条数
+     * @return 降序排行
+     */
+    List<AnalyticsRankVO> getTopArticles(LocalDate from, LocalDate to, Metric metric, int limit);
+}
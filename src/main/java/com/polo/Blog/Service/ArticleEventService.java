@@ -0,0 +1,30 @@
+package com.polo.Blog.Service;
+
+import com.polo.Blog.Domain.Entity.Article;
+
+import java.util.List;
+
+/**
+ * 文章事件总线：写入事务里记发件箱，提交后按文章分片放进有界队列，由后台线程批量投递给 ArticleEventSubscriber
+ */
+public interface ArticleEventService {
+    enum Type {
+        PUBLISHED,      // 新发布
+        UPDATED,        // 编辑
+        STATE_CHANGED   // 审核、删除、恢复(只改了状态列)
+    }
+
+    /**
+     * 记一条事件，需要在文章写入的事务里调用
+     * @param type 事件类型
+     * @param article 写入后的文章(快照不含正文)
+     */
+    void publish(Type type, Article article);
+
+    /**
+     * 批量记事件，一次插入
+     * @param type 事件类型
+     * @param articles 写入后的文章
+     */
+    void publish(Type type, List<Article> articles);
+}
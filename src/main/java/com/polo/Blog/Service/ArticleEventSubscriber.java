@@ -0,0 +1,25 @@
+package com.polo.Blog.Service;
+
+import com.polo.Blog.Domain.Entity.ArticleEvent;
+
+import java.util.List;
+
+/**
+ * 文章事件订阅者，实现类是 Spring Bean 即自动注册
+ * 同一篇文章只在它所在分片的投递线程里投递，每次给的都是投递时从库里读出的最新数据，晚到或重发的事件不会让状态回退；
+ * 至少投递一次，任一订阅者抛异常时整批稍后重发，所以处理必须幂等
+ */
+public interface ArticleEventSubscriber {
+    /**
+     * 处理一批事件，在投递线程里执行
+     * @param events 同一篇文章在一批里只出现一次，getArticle() 为库里的最新行(不含正文)；其他节点改的文章没有事件id
+     */
+    void onArticleEvents(List<ArticleEvent> events);
+
+    /**
+     * 同一批事件按 phase 从小到大依次交给各订阅者
+     */
+    default int phase() {
+        return 0;
+    }
+}
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import com.polo.Blog.Domain.DTO.ArticleDTO;
 import com.polo.Blog.Domain.Entity.Article;
 import com.polo.Blog.Domain.OV.ArticleVO;
+import com.polo.Blog.Domain.OV.BatchResultVO;
 
 
 import java.util.List;
@@ -25,6 +26,19 @@ public interface ArticleService extends IService<Article> {
      */
     ArticleVO getArticleById(Long id);
 
+    /**
+     * 只查 id、版本号、更新时间和状态，用于条件请求判断客户端缓存是否有效
+     * @param id 文章id
+     * @return 不存在时为空
+     */
+    Article getArticleStamp(Long id);
+
+    /**
+     * 记一次浏览(浏览量加一并计入热度、分类和流量统计)
+     * @param article 至少带 id 和状态
+     */
+    void recordView(Article article);
+
     /**
      * 获取关键词搜索结果
      * @param keyWord 关键词（标题）
@@ -42,16 +56,20 @@ public interface ArticleService extends IService<Article> {
     /**
      * 根据分类获取“我的”文章
      * @param tag 分类标签
+     * @param mode and 同时带有全部标签，or 带有任一标签
+     * @param exclude 排除的标签
      * @return 返回“我的”文章
      */
-    List<ArticleVO> getMyArticleByTag(List<String> tag);
+    List<ArticleVO> getMyArticleByTag(List<String> tag, String mode, List<String> exclude);
 
     /**
      * 获取对应标签分组
      * @param tag 标签组
+     * @param mode and 同时带有全部标签，or 带有任一标签
+     * @param exclude 排除的标签
      * @return 返回文章列表
      */
-    List<ArticleVO> getArticleByTag(List<String> tag);
+    List<ArticleVO> getArticleByTag(List<String> tag, String mode, List<String> exclude);
 
     /**
      * 分页获取热门文章 根据浏览量
@@ -61,6 +79,14 @@ public interface ArticleService extends IService<Article> {
      */
     IPage<ArticleVO> getHotArticle(int pageNum, int pageSize);
 
+    /**
+     * 分页获取近期趋势文章 根据时间衰减后的浏览、评论、点赞热度
+     * @param pageNum 页数
+     * @param pageSize 每页容量
+     * @return 返回一页
+     */
+    IPage<ArticleVO> getTrendingArticle(int pageNum, int pageSize);
+
     /**
      * 获取对应角色的文章管理列表
      * @return 返回对应的文章
@@ -100,17 +126,38 @@ public interface ArticleService extends IService<Article> {
      */
     String deleteArticle(ArticleDTO articleDTO);
 
-    /**
-     * 更新浏览量
-     * @param articleDTO 操作对象
-     * @return 返回更新成功消息
-     */
-    String viewCountUpdate(ArticleDTO articleDTO);
-
     /**
      * 允许文章发布
      * @param id 文章Id
      * @return 返回操作成功信息
      */
     String accessArticle(Long id);
+
+    /**
+     * 批量审核通过，一次查询 + 一条 UPDATE
+     * @param ids 文章id列表
+     * @return 每个id的处理结果，顺序同入参
+     */
+    List<BatchResultVO> batchAccessArticle(List<Long> ids);
+
+    /**
+     * 批量逻辑删除
+     * @param ids 文章id列表
+     * @return 每个id的处理结果
+     */
+    List<BatchResultVO> batchDeleteArticle(List<Long> ids);
+
+    /**
+     * 批量恢复已删除的文章
+     * @param ids 文章id列表
+     * @return 每个id的处理结果
+     */
+    List<BatchResultVO> batchRestoreArticle(List<Long> ids);
+
+    /**
+     * 创作者批量删除自己的作品，不是自己的跳过
+     * @param ids 文章id列表
+     * @return 每个id的处理结果
+     */
+    List<BatchResultVO> batchDeleteMyArticle(List<Long> ids);
 }
@@ -2,10 +2,23 @@ package com.polo.Blog.Service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.polo.Blog.Domain.Entity.ArticleTag;
-import com.polo.Blog.Domain.OV.ArticleVO;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ArticleTagService extends IService<ArticleTag> {
 
+    /**
+     * 标签名转标签id，优先查内存字典，不存在的标签一次批量创建
+     * @param names 标签名
+     * @return 去重后的标签id
+     */
+    List<Long> resolveTagIds(Collection<String> names);
+
+    /**
+     * 用新的标签名集合替换文章的标签，只写差异部分（最多一条插入一条删除）
+     * @param articleId 文章id
+     * @param names 标签名
+     */
+    void replaceArticleTags(Long articleId, Collection<String> names);
 }
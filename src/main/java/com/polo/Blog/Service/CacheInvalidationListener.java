@@ -0,0 +1,20 @@
+package com.polo.Blog.Service;
+
+import java.util.Set;
+
+/**
+ * 接收其他节点广播的缓存失效，实现类是 Spring Bean 即自动注册
+ * 同一次拉取里一个分区的键合并成一次调用；处理应按库里的最新数据刷新，重复调用结果不变
+ */
+public interface CacheInvalidationListener {
+    /**
+     * @return 关心的分区
+     */
+    CacheInvalidationService.Region region();
+
+    /**
+     * 在拉取线程里执行
+     * @param keys 失效的键，包含 CacheInvalidationService.ALL 时整个分区重新加载
+     */
+    void onInvalidate(Set<String> keys);
+}
@@ -0,0 +1,39 @@
+package com.polo.Blog.Service;
+
+import java.util.Collection;
+
+/**
+ * 跨节点缓存失效：写入方在事务里记一条失效日志，其他节点定时按水位线拉取，交给对应分区的 CacheInvalidationListener
+ * 不依赖消息中间件，延迟不超过一个拉取间隔
+ */
+public interface CacheInvalidationService {
+    //整个分区失效
+    String ALL = "*";
+
+    enum Region {
+        ARTICLE,    // 文章(首页文章流、分类统计、热度、列表响应缓存)
+        CATEGORY,   // 分类树
+        USER,       // 用户检索索引
+        ROLE,       // 角色权限
+        TAG         // 文章标签索引，键是文章id
+    }
+
+    /**
+     * 广播一个键失效，在写入的事务里调用时随事务提交，回滚则不广播
+     * @param region 分区
+     * @param key 实体id，或 ALL
+     */
+    void broadcast(Region region, Object key);
+
+    /**
+     * 批量广播，一次插入
+     * @param region 分区
+     * @param keys 实体id
+     */
+    void broadcast(Region region, Collection<?> keys);
+
+    /**
+     * @return 本节点id，写入的日志带上它，拉取时跳过自己的
+     */
+    String nodeId();
+}
@@ -1,14 +1,48 @@
 package com.polo.Blog.Service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.polo.Blog.Domain.Entity.Article;
 import com.polo.Blog.Domain.Entity.Category;
+import com.polo.Blog.Domain.OV.CategoryTreeVO;
 
 import java.util.List;
 
 public interface CategoryService extends IService<Category> {
     /**
-     *  根据创建时间获取前10个分类
-     * @return 10个分类
+     *  按分类(含子分类)的文章浏览量取热门分类，直接返回内存快照
+     * @return 热门分类
      */
     List<Category> getHotCategoryList();
+
+    /**
+     * 分类树(按 pid 组织，同级按 sort 排序)，带文章数和浏览量
+     * @return 顶级分类列表
+     */
+    List<CategoryTreeVO> getCategoryTree();
+
+    /**
+     * 按id取分类，优先内存
+     * @param id 分类id
+     * @return 分类，不存在返回 null
+     */
+    Category getCategory(Long id);
+
+    /**
+     * 按名称取分类，不存在则创建
+     * @param name 分类名
+     * @return 分类
+     */
+    Category getOrCreateByName(String name);
+
+    /**
+     * 文章新增/修改/删除/审核后同步分类统计，事务提交后生效
+     * @param article 修改后的文章(需要 id、categoryId、status、isDeleted、viewCount)
+     */
+    void syncArticle(Article article);
+
+    /**
+     * 文章浏览量加一
+     * @param articleId 文章id
+     */
+    void recordView(Long articleId);
 }
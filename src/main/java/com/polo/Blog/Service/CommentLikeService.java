@@ -0,0 +1,38 @@
+package com.polo.Blog.Service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.polo.Blog.Domain.Entity.CommentLike;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface CommentLikeService extends IService<CommentLike> {
+    /**
+     * 点赞评论（内存去重，定时批量落库）
+     * @param commentId 评论id
+     * @return 返回操作结果
+     */
+    String likeComment(Long commentId);
+
+    /**
+     * 取消点赞
+     * @param commentId 评论id
+     * @return 返回操作结果
+     */
+    String unlikeComment(Long commentId);
+
+    /**
+     * 还没落库的点赞数增量，展示时加到 like_count 上
+     * @param commentId 评论id
+     * @return 增量
+     */
+    long getPendingDelta(Long commentId);
+
+    /**
+     * 查询用户点过赞的评论
+     * @param userId 用户id
+     * @param commentIds 候选评论id
+     * @return 点过赞的评论id
+     */
+    Set<Long> getLikedCommentIds(Long userId, Collection<Long> commentIds);
+}
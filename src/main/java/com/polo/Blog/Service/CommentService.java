@@ -0,0 +1,40 @@
+package com.polo.Blog.Service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.polo.Blog.Domain.DTO.CommentDTO;
+import com.polo.Blog.Domain.Entity.Comment;
+import com.polo.Blog.Domain.OV.CommentPageVO;
+
+public interface CommentService extends IService<Comment> {
+    /**
+     * 按游标分页获取文章的根评论，并带出每条根评论的回复预览
+     * @param articleId 文章id
+     * @param cursor 上一页最后一条评论id，第一页传空
+     * @param pageSize 每页容量
+     * @return 返回一页评论
+     */
+    CommentPageVO getCommentPage(Long articleId, Long cursor, int pageSize);
+
+    /**
+     * 按游标分页获取某条根评论下的回复
+     * @param rootId 根评论id
+     * @param cursor 上一页最后一条回复id，第一页传空
+     * @param pageSize 每页容量
+     * @return 返回一页回复
+     */
+    CommentPageVO getReplyPage(Long rootId, Long cursor, int pageSize);
+
+    /**
+     * 发表评论或回复
+     * @param commentDTO 操作对象
+     * @return 返回发表成功信息
+     */
+    String addComment(CommentDTO commentDTO);
+
+    /**
+     * 删除评论（本人或管理员，逻辑删除）
+     * @param id 评论id
+     * @return 返回删除成功信息
+     */
+    String deleteComment(Long id);
+}
@@ -0,0 +1,55 @@
+package com.polo.Blog.Service;
+
+import com.polo.Blog.Domain.Entity.Article;
+import com.polo.Blog.Domain.OV.ArticleVO;
+
+import java.util.List;
+
+/**
+ * 首页文章流：全部文章按(更新时间, id)倒序常驻内存，只存列表需要的字段(不含正文)
+ * 文章发布、修改、删除、审核时原地更新，前台和后台列表直接切片，不查库
+ */
+public interface FeedService {
+    /**
+     * 启动加载是否完成，未完成时调用方应回退到查库
+     * @return 是否可用
+     */
+    boolean isLoaded();
+
+    /**
+     * 前台文章流(已发布且未删除)
+     * @return 按更新时间倒序
+     */
+    List<ArticleVO> getPublicFeed();
+
+    /**
+     * 后台文章流(全部，含草稿和已删除)
+     * @return 按更新时间倒序
+     */
+    List<ArticleVO> getAdminFeed();
+
+    /**
+     * 文章流的数据版本：每篇文章的 (id, 版本号) 汇总而成，只和数据有关，各节点同步到同样的数据后相同
+     * 任何文章写入都会让版本号加一，所以内容变了它就变；用作列表接口的 ETag
+     * @return 未加载完成时返回 null
+     */
+    String dataVersion();
+
+    /**
+     * 新发布或编辑后放入/替换，事务提交后生效
+     * @param article 完整的文章实体
+     */
+    void putArticle(Article article);
+
+    /**
+     * 审核、删除、恢复后更新状态，位置不变，事务提交后生效
+     * @param article 修改后的文章(需要 id、status、isDeleted)
+     */
+    void syncState(Article article);
+
+    /**
+     * 记一次浏览
+     * @param articleId 文章id
+     */
+    void recordView(Long articleId);
+}
@@ -0,0 +1,448 @@
+package com.polo.Blog.Service.Impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.polo.Blog.Domain.Entity.Article;
+import com.polo.Blog.Domain.Entity.ArticleDaily;
+import com.polo.Blog.Domain.Entity.ArticleEvent;
+import com.polo.Blog.Domain.OV.AnalyticsRankVO;
+import com.polo.Blog.Domain.OV.AnalyticsSeriesVO;
+import com.polo.Blog.Mapper.ArticleDailyMapper;
+import com.polo.Blog.Mapper.ArticleMapper;
+import com.polo.Blog.Service.AnalyticsService;
+import com.polo.Blog.Service.ArticleEventService;
+import com.polo.Blog.Service.ArticleEventSubscriber;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 写入：请求线程只累加当天的 LongAdder，定时按天批量 upsert 到 landmark_article_daily_stats 后再合并进内存列
+ * 读取：文章按指标分列存每天的 int 数组，全站和分类额外维护日/周/月三种桶，查询全部走内存
+ * 启动时和每天凌晨从每日统计表重建保留窗口内的数据
+ */
+@Slf4j
+@Service
+public class AnalyticsServiceImpl implements AnalyticsService, ArticleEventSubscriber {
+
+    private static final int METRICS = Metric.values().length;
+    //窗口尾部留出余量，凌晨重建失败时后面几天的数据仍能写入
+    private static final int SLACK_DAYS = 31;
+    private static final int FLUSH_BATCH = 500;
+    private static final int DEFAULT_RANGE_DAYS = 30;
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    @Autowired
+    private ArticleDailyMapper articleDailyMapper;
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    private final int retentionDays;
+    //日期 -> 文章 -> 各指标增量，跨零点的增量仍记在发生的那天
+    private final Map<LocalDate, Map<Long, LongAdder[]>> pending = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Columns columns;
+
+    public AnalyticsServiceImpl(@Value("${analytics.retention-days:400}") int retentionDays) {
+        this.retentionDays = retentionDays;
+        this.columns = new Columns(LocalDate.now().minusDays(retentionDays - 1), retentionDays + SLACK_DAYS);
+    }
+
+    @Override
+    public void record(Long articleId, Metric metric) {
+        if (articleId == null) return;
+        pending.computeIfAbsent(LocalDate.now(), day -> new ConcurrentHashMap<>())
+                .computeIfAbsent(articleId, id -> newAdders())[metric.ordinal()].increment();
+    }
+
+    @Override
+    public void registerArticle(Long articleId, Long categoryId, String title) {
+        if (articleId == null) return;
+        lock.writeLock().lock();
+        try {
+            columns.register(articleId, categoryId == null ? -1 : categoryId, title);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onArticleEvents(List<ArticleEvent> events) {
+        //只有发布和编辑会改分类、标题
+        for (ArticleEvent event : events) {
+            if (ArticleEventService.Type.STATE_CHANGED.name().equals(event.getEventType())) continue;
+            Article article = event.getArticle();
+            registerArticle(article.getId(), article.getCategoryId(), article.getTitle());
+        }
+    }
+
+    @Override
+    public AnalyticsSeriesVO getArticleSeries(Long articleId, LocalDate from, LocalDate to, Granularity granularity, Metric metric) {
+        lock.readLock().lock();
+        try {
+            Integer slot = columns.slotOf.get(articleId);
+            int[] days = slot == null ? null : columns.articleDays[metric.ordinal()][slot];
+            DayReader reader = days == null ? d -> 0 : d -> days[d];
+            return series(columns, from, to, granularity, reader, null, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public AnalyticsSeriesVO getCategorySeries(Long categoryId, LocalDate from, LocalDate to, Granularity granularity, Metric metric) {
+        lock.readLock().lock();
+        try {
+            Rollup rollup = columns.categories.get(categoryId);
+            if (rollup == null) {
+                return series(columns, from, to, granularity, d -> 0, null, null);
+            }
+            return rollupSeries(rollup, from, to, granularity, metric);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public AnalyticsSeriesVO getSiteSeries(LocalDate from, LocalDate to, Granularity granularity, Metric metric) {
+        lock.readLock().lock();
+        try {
+            return rollupSeries(columns.site, from, to, granularity, metric);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<AnalyticsRankVO> getTopArticles(LocalDate from, LocalDate to, Metric metric, int limit) {
+        if (limit <= 0) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            int[] range = c.dayRange(from, to);
+            if (range == null) return new ArrayList<>();
+            //小顶堆保留前 limit 个 {合计, 槽位}
+            PriorityQueue<long[]> heap = new PriorityQueue<>(Comparator.comparingLong(e -> e[0]));
+            int[][] metricColumn = c.articleDays[metric.ordinal()];
+            for (int slot = 0; slot < c.size; slot++) {
+                int[] days = metricColumn[slot];
+                if (days == null) continue;
+                long sum = 0;
+                for (int d = range[0]; d <= range[1]; d++) sum += days[d];
+                if (sum == 0) continue;
+                if (heap.size() < limit) {
+                    heap.offer(new long[]{sum, slot});
+                } else if (sum > heap.peek()[0]) {
+                    heap.poll();
+                    heap.offer(new long[]{sum, slot});
+                }
+            }
+            List<AnalyticsRankVO> result = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                long[] entry = heap.poll();
+                int slot = (int) entry[1];
+                result.add(new AnalyticsRankVO(c.slotArticle[slot], c.slotCategory[slot], c.slotTitle[slot], entry[0]));
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 定时把内存增量批量写入每日统计表，写成功的部分再合并到内存列
+     */
+    @Scheduled(fixedDelayString = "${analytics.flush-ms:60000}")
+    public synchronized void flush() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        List<ArticleDaily> rows = new ArrayList<>();
+        pending.forEach((day, articles) -> articles.forEach((articleId, adders) -> {
+            int view = (int) adders[Metric.VIEW.ordinal()].sumThenReset();
+            int like = (int) adders[Metric.LIKE.ordinal()].sumThenReset();
+            int comment = (int) adders[Metric.COMMENT.ordinal()].sumThenReset();
+            if (view == 0 && like == 0 && comment == 0) return;
+            //没有收藏功能，collect_count 保持 0
+            rows.add(new ArticleDaily(IdWorker.getId(), articleId, day, view, like, comment, 0, now));
+        }));
+        //之前的日期已经过去，取完就不会再有新增量
+        pending.keySet().removeIf(day -> day.isBefore(today));
+        if (rows.isEmpty()) return;
+
+        int written = 0;
+        try {
+            while (written < rows.size()) {
+                int end = Math.min(written + FLUSH_BATCH, rows.size());
+                articleDailyMapper.upsertIncrements(rows.subList(written, end));
+                written = end;
+            }
+        } catch (Exception e) {
+            //没写进去的增量放回去，下次重试
+            for (ArticleDaily row : rows.subList(written, rows.size())) {
+                LongAdder[] adders = pending.computeIfAbsent(row.getDate(), day -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(row.getArticleId(), id -> newAdders());
+                adders[Metric.VIEW.ordinal()].add(row.getViewCount());
+                adders[Metric.LIKE.ordinal()].add(row.getLikeCount());
+                adders[Metric.COMMENT.ordinal()].add(row.getCommentCount());
+            }
+            log.warn("每日统计写入失败，{} 条增量下次重试: {}", rows.size() - written, e.getMessage());
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (ArticleDaily row : rows.subList(0, written)) {
+                columns.add(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * 每天凌晨先落库再重建，窗口随日期向后滚动
+     */
+    @Scheduled(cron = "${analytics.rebuild-cron:0 10 0 * * ?}")
+    public synchronized void nightlyRebuild() {
+        flush();
+        rebuild();
+        //空闲文章的计数器在重建后清掉
+        pending.values().forEach(articles ->
+                articles.values().removeIf(adders -> Arrays.stream(adders).allMatch(adder -> adder.sum() == 0)));
+    }
+
+    /**
+     * 从每日统计表重建保留窗口内的全部数据，失败时沿用当前内存数据
+     */
+    public synchronized void rebuild() {
+        LocalDate base = LocalDate.now().minusDays(retentionDays - 1);
+        Columns fresh = new Columns(base, retentionDays + SLACK_DAYS);
+        try {
+            LambdaQueryWrapper<Article> articleWrapper = new LambdaQueryWrapper<>();
+            articleWrapper.select(Article::getId, Article::getCategoryId, Article::getTitle);
+            for (Article article : articleMapper.selectList(articleWrapper)) {
+                fresh.register(article.getId(), article.getCategoryId(), article.getTitle());
+            }
+            LambdaQueryWrapper<ArticleDaily> statsWrapper = new LambdaQueryWrapper<>();
+            statsWrapper.ge(ArticleDaily::getDate, base);
+            //流式读取，不把整张表放进 List
+            articleDailyMapper.selectList(statsWrapper, context -> fresh.add(context.getResultObject()));
+        } catch (Exception e) {
+            log.warn("流量统计重建失败，沿用当前数据: {}", e.getMessage());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            columns = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("流量统计重建完成，文章数: {}", fresh.size);
+    }
+
+    private AnalyticsSeriesVO rollupSeries(Rollup rollup, LocalDate from, LocalDate to, Granularity granularity, Metric metric) {
+        long[] days = rollup.day[metric.ordinal()];
+        return series(columns, from, to, granularity, d -> days[d], rollup.week[metric.ordinal()], rollup.month[metric.ordinal()]);
+    }
+
+    /**
+     * 生成时间序列，周/月粒度返回与区间相交的完整桶
+     * weeks / months 为空时用日数据现加
+     */
+    private AnalyticsSeriesVO series(Columns c, LocalDate from, LocalDate to, Granularity granularity,
+                                     DayReader day, long[] weeks, long[] months) {
+        AnalyticsSeriesVO vo = new AnalyticsSeriesVO();
+        if (to == null) to = LocalDate.now();
+        if (from == null) from = to.minusDays(DEFAULT_RANGE_DAYS - 1);
+        int[] range = c.dayRange(from, to);
+        if (range == null) return vo;
+        LocalDate start = c.baseDate.plusDays(range[0]);
+        LocalDate end = c.baseDate.plusDays(range[1]);
+
+        switch (granularity) {
+            case DAY -> {
+                for (int d = range[0]; d <= range[1]; d++) {
+                    addPoint(vo, c.baseDate.plusDays(d).toString(), day.get(d));
+                }
+            }
+            case WEEK -> {
+                for (LocalDate week = start.with(DayOfWeek.MONDAY); !week.isAfter(end); week = week.plusWeeks(1)) {
+                    long value = weeks != null ? weeks[c.weekIndex(week)] : c.sumDays(day, week, week.plusDays(6));
+                    addPoint(vo, week.toString(), value);
+                }
+            }
+            case MONTH -> {
+                for (LocalDate month = start.withDayOfMonth(1); !month.isAfter(end); month = month.plusMonths(1)) {
+                    long value = months != null ? months[c.monthIndex(month)]
+                            : c.sumDays(day, month, month.plusMonths(1).minusDays(1));
+                    addPoint(vo, month.format(MONTH_LABEL), value);
+                }
+            }
+        }
+        return vo;
+    }
+
+    private static void addPoint(AnalyticsSeriesVO vo, String label, long value) {
+        vo.getLabels().add(label);
+        vo.getValues().add(value);
+        vo.setTotal(vo.getTotal() + value);
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[METRICS];
+        for (int i = 0; i < METRICS; i++) adders[i] = new LongAdder();
+        return adders;
+    }
+
+    @FunctionalInterface
+    private interface DayReader {
+        long get(int dayIndex);
+    }
+
+    /**
+     * 全站 / 分类的预聚合桶，每个指标一列
+     */
+    private static class Rollup {
+        final long[][] day;
+        final long[][] week;
+        final long[][] month;
+
+        Rollup(int days, int weeks, int months) {
+            day = new long[METRICS][days];
+            week = new long[METRICS][weeks];
+            month = new long[METRICS][months];
+        }
+
+        void add(int metric, int d, int w, int m, long delta) {
+            day[metric][d] += delta;
+            week[metric][w] += delta;
+            month[metric][m] += delta;
+        }
+    }
+
+    /**
+     * 保留窗口内的全部统计，文章按槽位编号，articleDays[指标][槽位] 为该文章每天的数值
+     */
+    private static class Columns {
+        final LocalDate baseDate;
+        final int days;
+        final LocalDate weekBase;
+        final LocalDate monthBase;
+        final Map<Long, Integer> slotOf = new HashMap<>();
+        long[] slotArticle = new long[64];
+        long[] slotCategory = new long[64];
+        String[] slotTitle = new String[64];
+        int[][][] articleDays = new int[METRICS][64][];
+        int size;
+        final Rollup site;
+        final Map<Long, Rollup> categories = new HashMap<>();
+
+        Columns(LocalDate baseDate, int days) {
+            this.baseDate = baseDate;
+            this.days = days;
+            this.weekBase = baseDate.with(DayOfWeek.MONDAY);
+            this.monthBase = baseDate.withDayOfMonth(1);
+            this.site = newRollup();
+        }
+
+        Rollup newRollup() {
+            return new Rollup(days, days / 7 + 2, days / 28 + 2);
+        }
+
+        int dayIndex(LocalDate date) {
+            long index = date.toEpochDay() - baseDate.toEpochDay();
+            return index < 0 || index >= days ? -1 : (int) index;
+        }
+
+        int weekIndex(LocalDate date) {
+            return (int) ((date.toEpochDay() - weekBase.toEpochDay()) / 7);
+        }
+
+        int monthIndex(LocalDate date) {
+            return (date.getYear() - monthBase.getYear()) * 12 + date.getMonthValue() - monthBase.getMonthValue();
+        }
+
+        /**
+         * 把区间裁剪到窗口内，返回 {起始下标, 结束下标}，不相交返回 null
+         */
+        int[] dayRange(LocalDate from, LocalDate to) {
+            if (from == null || to == null || from.isAfter(to)) return null;
+            long first = Math.max(from.toEpochDay() - baseDate.toEpochDay(), 0);
+            long last = Math.min(to.toEpochDay() - baseDate.toEpochDay(), days - 1);
+            return first > last ? null : new int[]{(int) first, (int) last};
+        }
+
+        long sumDays(DayReader day, LocalDate from, LocalDate to) {
+            int[] range = dayRange(from, to);
+            if (range == null) return 0;
+            long sum = 0;
+            for (int d = range[0]; d <= range[1]; d++) sum += day.get(d);
+            return sum;
+        }
+
+        int register(long articleId, long categoryId, String title) {
+            Integer slot = slotOf.get(articleId);
+            if (slot == null) {
+                if (size == slotArticle.length) grow();
+                slot = size++;
+                slotOf.put(articleId, slot);
+                slotArticle[slot] = articleId;
+            }
+            slotCategory[slot] = categoryId;
+            if (title != null) slotTitle[slot] = title;
+            return slot;
+        }
+
+        void add(ArticleDaily row) {
+            if (row.getArticleId() == null || row.getDate() == null) return;
+            add(row.getArticleId(), Metric.VIEW, row.getDate(), row.getViewCount());
+            add(row.getArticleId(), Metric.LIKE, row.getDate(), row.getLikeCount());
+            add(row.getArticleId(), Metric.COMMENT, row.getDate(), row.getCommentCount());
+        }
+
+        private void add(long articleId, Metric metric, LocalDate date, Integer delta) {
+            int d = dayIndex(date);
+            if (d < 0 || delta == null || delta == 0) return;
+            Integer slot = slotOf.get(articleId);
+            if (slot == null) slot = register(articleId, -1, null);
+            int[] series = articleDays[metric.ordinal()][slot];
+            if (series == null) {
+                series = new int[days];
+                articleDays[metric.ordinal()][slot] = series;
+            }
+            series[d] += delta;
+            int w = weekIndex(date);
+            int m = monthIndex(date);
+            site.add(metric.ordinal(), d, w, m, delta);
+            categories.computeIfAbsent(slotCategory[slot], k -> newRollup()).add(metric.ordinal(), d, w, m, delta);
+        }
+
+        private void grow() {
+            int capacity = slotArticle.length * 2;
+            slotArticle = Arrays.copyOf(slotArticle, capacity);
+            slotCategory = Arrays.copyOf(slotCategory, capacity);
+            slotTitle = Arrays.copyOf(slotTitle, capacity);
+            for (int m = 0; m < METRICS; m++) {
+                articleDays[m] = Arrays.copyOf(articleDays[m], capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.polo.Blog.Service.Impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polo.Blog.Domain.Entity.Article;
+import com.polo.Blog.Domain.Entity.ArticleEvent;
+import com.polo.Blog.Mapper.ArticleEventMapper;
+import com.polo.Blog.Mapper.ArticleMapper;
+import com.polo.Blog.Service.ArticleEventService;
+import com.polo.Blog.Service.ArticleEventSubscriber;
+import com.polo.Blog.Service.CacheInvalidationListener;
+import com.polo.Blog.Service.CacheInvalidationService;
+import com.polo.Blog.Utils.PrometheusWriter;
+import com.polo.Blog.Utils.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 写入路径只多一条 INSERT(和文章在同一个事务)，提交后把事件放进按文章id分片的有界队列，队列满了也不阻塞请求
+ * 每个分片一个线程批量取出，按文章id从库里读出最新的行(不含正文)，按订阅者的 phase 依次投递，成功后标记 dispatched
+ * 一篇文章只落在一个分片，只由这个线程投递，每次投递的都是读取时库里的最新数据，晚到或重发的事件不会让订阅者回到旧状态
+ * 没投递成功的(队列满、订阅者异常)由写入节点的定时任务按事件id顺序补发
+ * 同时广播文章失效，其他节点收到后把刷新请求放进同一个分片队列，和本节点的事件走同一条投递路径
+ */
+@Slf4j
+@Service
+public class ArticleEventServiceImpl implements ArticleEventService, CacheInvalidationListener {
+    private static final String INSERT_EVENT =
+            "INSERT INTO landmark_article_outbox (article_id, event_type, payload, dispatched, node_id, create_time) VALUES (?, ?, ?, 0, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ArticleEventMapper articleEventMapper;
+    @Autowired
+    private ArticleMapper articleMapper;
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private List<ArticleEventSubscriber> subscribers;
+    @Value("${article-events.shards:4}")
+    private int shardCount;
+    @Value("${article-events.queue-capacity:1024}")
+    private int queueCapacity;
+    @Value("${article-events.batch-size:256}")
+    private int batchSize;
+    @Value("${article-events.redeliver-after-ms:5000}")
+    private long redeliverAfterMs;
+    @Value("${article-events.retention-hours:72}")
+    private long retentionHours;
+
+    private Shard[] shards;
+    //其他节点改过、还没刷新成功的文章(队列满或投递失败)，定时补发时重新入队
+    private final Set<Long> pendingRefresh = ConcurrentHashMap.newKeySet();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder redelivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        subscribers = new ArrayList<>(subscribers);
+        subscribers.sort(Comparator.comparingInt(ArticleEventSubscriber::phase));
+        shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = new Shard(new ArrayBlockingQueue<>(Math.max(1, queueCapacity)));
+            shard.worker = new Thread(() -> drain(shard), "article-events-" + i);
+            shard.worker.setDaemon(true);
+            shard.worker.start();
+            shards[i] = shard;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        //没投递完的留在发件箱，下次启动补发
+        for (Shard shard : shards) {
+            shard.worker.interrupt();
+        }
+    }
+
+    @Override
+    public void publish(Type type, Article article) {
+        if (article == null) return;
+        publish(type, List.of(article));
+    }
+
+    @Override
+    public void publish(Type type, List<Article> articles) {
+        if (articles == null || articles.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+        String nodeId = cacheInvalidationService.nodeId();
+        List<ArticleEvent> events = new ArrayList<>(articles.size());
+        for (Article article : articles) {
+            Article snapshot = new Article();
+            BeanUtils.copyProperties(article, snapshot, "content");
+            events.add(new ArticleEvent(null, article.getId(), type.name(), toJson(snapshot), 0, nodeId, now, snapshot));
+        }
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_EVENT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ArticleEvent event = events.get(i);
+                        ps.setLong(1, event.getArticleId());
+                        ps.setString(2, event.getEventType());
+                        ps.setString(3, event.getPayload());
+                        ps.setString(4, event.getNodeId());
+                        ps.setTimestamp(5, Timestamp.valueOf(event.getCreateTime()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return events.size();
+                    }
+                }, keys);
+        cacheInvalidationService.broadcast(CacheInvalidationService.Region.ARTICLE,
+                events.stream().map(ArticleEvent::getArticleId).toList());
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        published.add(events.size());
+        //拿不到自增id时只能等定时补发
+        if (keyList.size() != events.size()) return;
+        for (int i = 0; i < events.size(); i++) {
+            events.get(i).setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+        }
+        TransactionUtils.afterCommit(() -> events.forEach(this::enqueue));
+    }
+
+    @Override
+    public CacheInvalidationService.Region region() {
+        return CacheInvalidationService.Region.ARTICLE;
+    }
+
+    /**
+     * 其他节点改了文章：放一个刷新请求(没有事件id的编辑事件)进文章所在分片，由分片线程读库投递，不经过发件箱
+     */
+    @Override
+    public void onInvalidate(Set<String> keys) {
+        for (String key : keys) {
+            //文章只按id广播
+            if (!CacheInvalidationService.ALL.equals(key)) refresh(Long.valueOf(key));
+        }
+    }
+
+    /**
+     * 定时补发：本节点写入的、超过 redeliver-after-ms 还没标记投递的事件按id顺序重新入队，以及没刷新成功的远程修改
+     * 其他节点的事件不补发，本节点按它们的失效广播刷新
+     * 节点重启后 nodeId 会变，旧节点留下的事件不再补发，重启时内存缓存已经从库里全量加载
+     */
+    @Scheduled(fixedDelayString = "${article-events.poll-ms:5000}")
+    public void redeliver() {
+        for (Long articleId : List.copyOf(pendingRefresh)) {
+            pendingRefresh.remove(articleId);
+            refresh(articleId);
+        }
+        try {
+            LambdaQueryWrapper<ArticleEvent> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(ArticleEvent::getId, ArticleEvent::getArticleId, ArticleEvent::getEventType)
+                    .eq(ArticleEvent::getDispatched, 0)
+                    .eq(ArticleEvent::getNodeId, cacheInvalidationService.nodeId())
+                    .lt(ArticleEvent::getCreateTime, LocalDateTime.now().minusNanos(redeliverAfterMs * 1_000_000L))
+                    .orderByAsc(ArticleEvent::getId)
+                    .last("LIMIT " + batchSize * shards.length);
+            for (ArticleEvent event : articleEventMapper.selectList(wrapper)) {
+                //队列还是满的就等下一轮，后面的事件也不插队
+                if (!shard(event.getArticleId()).queue.offer(event, 1, TimeUnit.SECONDS)) break;
+                redelivered.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("文章事件补发失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清理保留时间之前已投递的事件
+     */
+    @Scheduled(cron = "${article-events.cleanup-cron:0 30 * * * ?}")
+    public void cleanup() {
+        try {
+            LambdaQueryWrapper<ArticleEvent> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(ArticleEvent::getDispatched, 1)
+                    .lt(ArticleEvent::getCreateTime, LocalDateTime.now().minusHours(retentionHours));
+            articleEventMapper.delete(wrapper);
+        } catch (Exception e) {
+            log.warn("文章事件清理失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 导出 article_events_total(按处理结果) 和各分片排队数
+     */
+    public void exportTo(PrometheusWriter writer) {
+        writer.type("article_events_total", "counter", "Article lifecycle events by outcome");
+        writer.sample("article_events_total", published.sum(), "result", "published");
+        writer.sample("article_events_total", delivered.sum(), "result", "delivered");
+        writer.sample("article_events_total", superseded.sum(), "result", "superseded");
+        writer.sample("article_events_total", overflowed.sum(), "result", "overflowed");
+        writer.sample("article_events_total", redelivered.sum(), "result", "redelivered");
+        writer.sample("article_events_total", failed.sum(), "result", "failed");
+        writer.type("article_events_queued", "gauge", "Events waiting in each shard queue");
+        for (int i = 0; i < shards.length; i++) {
+            writer.sample("article_events_queued", shards[i].queue.size(), "shard", String.valueOf(i));
+        }
+    }
+
+    private void enqueue(ArticleEvent event) {
+        if (!shard(event.getArticleId()).queue.offer(event)) overflowed.increment();
+    }
+
+    private void refresh(Long articleId) {
+        ArticleEvent event = new ArticleEvent(null, articleId, Type.UPDATED.name(), null, 1, null, LocalDateTime.now(), null);
+        if (!shard(articleId).queue.offer(event)) {
+            overflowed.increment();
+            pendingRefresh.add(articleId);
+        }
+    }
+
+    private void drain(Shard shard) {
+        List<ArticleEvent> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(shard.queue.take());
+                shard.queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.warn("文章事件投递异常: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 同一篇文章在批次里只投递一次，按库里的最新行；类型取最后一个改了内容的事件，只有状态变更时才是 STATE_CHANGED
+     */
+    private void deliver(List<ArticleEvent> batch) {
+        Map<Long, String> types = new LinkedHashMap<>();
+        List<Long> acked = new ArrayList<>(batch.size());
+        for (ArticleEvent event : batch) {
+            types.merge(event.getArticleId(), event.getEventType(),
+                    (old, type) -> Type.STATE_CHANGED.name().equals(type) ? old : type);
+            if (event.getId() != null) acked.add(event.getId());
+        }
+        superseded.add(batch.size() - types.size());
+        List<ArticleEvent> events;
+        try {
+            events = load(types);
+        } catch (RuntimeException e) {
+            //本节点的事件留在发件箱等补发，远程刷新记下来
+            failRefresh(batch);
+            throw e;
+        }
+        if (!events.isEmpty() && !notifySubscribers(events)) {
+            //不标记投递，等定时任务整批重发
+            failRefresh(batch);
+            return;
+        }
+        delivered.add(events.size());
+        markDispatched(acked);
+    }
+
+    private List<ArticleEvent> load(Map<Long, String> types) {
+        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(Article.class, column -> !"content".equals(column.getColumn())).in(Article::getId, types.keySet());
+        Map<Long, Article> articles = new HashMap<>();
+        for (Article article : articleMapper.selectList(wrapper)) {
+            articles.put(article.getId(), article);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ArticleEvent> events = new ArrayList<>(articles.size());
+        types.forEach((articleId, type) -> {
+            Article article = articles.get(articleId);
+            //行已经不在了，没有可投递的
+            if (article != null) events.add(new ArticleEvent(null, articleId, type, null, 1, null, now, article));
+        });
+        return events;
+    }
+
+    private void failRefresh(List<ArticleEvent> batch) {
+        for (ArticleEvent event : batch) {
+            if (event.getId() == null) pendingRefresh.add(event.getArticleId());
+        }
+    }
+
+    /**
+     * 按 phase 依次交给订阅者，有一个失败就停下
+     */
+    private boolean notifySubscribers(List<ArticleEvent> batch) {
+        List<ArticleEvent> events = Collections.unmodifiableList(batch);
+        for (ArticleEventSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onArticleEvents(events);
+            } catch (Exception e) {
+                failed.add(events.size());
+                log.warn("文章事件订阅者 {} 处理失败，{} 条事件: {}", subscriber.getClass().getSimpleName(),
+                        events.size(), e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void markDispatched(List<Long> ids) {
+        if (ids.isEmpty()) return;
+        try {
+            LambdaUpdateWrapper<ArticleEvent> wrapper = new LambdaUpdateWrapper<>();
+            wrapper.in(ArticleEvent::getId, ids).set(ArticleEvent::getDispatched, 1);
+            articleEventMapper.update(wrapper);
+        } catch (Exception e) {
+            //标记失败只会多补发一次，补发时按库里的最新数据投递，结果不变
+            log.warn("文章事件标记投递失败: {}", e.getMessage());
+        }
+    }
+
+    private Shard shard(Long articleId) {
+        return shards[Math.floorMod(Long.hashCode(articleId), shards.length)];
+    }
+
+    private String toJson(Article article) {
+        try {
+            return objectMapper.writeValueAsString(article);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("文章快照序列化失败", e);
+        }
+    }
+
+    private static class Shard {
+        final BlockingQueue<ArticleEvent> queue;
+        Thread worker;
+
+        Shard(BlockingQueue<ArticleEvent> queue) {
+            this.queue = queue;
+        }
+    }
+}
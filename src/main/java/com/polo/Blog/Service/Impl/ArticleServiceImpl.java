@@ -1,46 +1,70 @@
 package com.polo.Blog.Service.Impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.polo.Blog.Annotation.CounterWrite;
+import com.polo.Blog.Annotation.ReadReplica;
 import com.polo.Blog.Domain.DTO.ArticleDTO;
 import com.polo.Blog.Domain.Entity.*;
 import com.polo.Blog.Domain.OV.ArticleVO;
+import com.polo.Blog.Domain.OV.BatchResultVO;
 import com.polo.Blog.Mapper.ArticleMapper;
 import com.polo.Blog.Service.*;
 import com.polo.Blog.Utils.EntityListToVOList;
+import com.polo.Blog.Utils.SingleFlight;
 import com.polo.Blog.Utils.UserContext;
+import com.polo.Blog.Utils.VersionConflictException;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 @Service
 public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> implements ArticleService {
+    //批量操作一次最多的文章数
+    private static final int MAX_BATCH = 500;
+
     @Autowired
     private ArticleTagService articleTagService;
     @Autowired
     private UserService userService;
     @Autowired
-    private SearchHistoryService searchHistoryService;
-    @Autowired
     private CategoryService categoryService;
+    @Autowired
+    private TrendingService trendingService;
+    @Autowired
+    private AnalyticsService analyticsService;
+    @Autowired
+    private TagIndexService tagIndexService;
+    @Autowired
+    private SingleFlight articleLoads;
+    @Autowired
+    private FeedService feedService;
+    @Autowired
+    private ArticleEventService articleEventService;
+    @ReadReplica
     @Override
     public List<ArticleVO> getArticleList() {
         UserContext.LoginUser loginUser = UserContext.get();
+        boolean admin = Objects.equals(loginUser.getRoleKey(), "admin");
+        //首页文章流常驻内存，启动加载完成前才查库
+        if(feedService.isLoaded()) {
+            return admin ? feedService.getAdminFeed() : feedService.getPublicFeed();
+        }
 
         LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
         //不是管理员就过滤草稿和已删除的文章
-        if(!Objects.equals(loginUser.getRoleKey(), "admin")) {
+        if(!admin) {
             wrapper.eq(Article::getStatus, 1).eq(Article::getIsDeleted, 0);
         }
         //按更新时间排序
@@ -49,14 +73,20 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         return EntityListToVOList.articleListToVOList(articles, userService);
     }
 
+    @ReadReplica
     @Override
     public ArticleVO getArticleById(Long id) {
+        //同一篇文章的并发请求只查一次库，结果共享，每个请求拿一份副本
+        ArticleDetail detail = articleLoads.execute("getArticleById:" + id, () -> loadArticleDetail(id));
+        ArticleVO articleVO = new ArticleVO();
+        BeanUtils.copyProperties(detail.articleVO(), articleVO);
+        return articleVO;
+    }
+
+    private ArticleDetail loadArticleDetail(Long id) {
         LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(Article::getId, id);
         Article article = this.getOne(wrapper);
-        long viewCount = article.getViewCount();
-        article.setViewCount(viewCount + 1);
-        this.updateById(article);
         ArticleVO articleVO = new ArticleVO();
         BeanUtils.copyProperties(article, articleVO);
         //获取作者名
@@ -65,14 +95,41 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         User user = userService.getOne(userWrapper);
         articleVO.setAuth(user.getUsername());
         //分类
-        LambdaQueryWrapper<Category> categoryWrapper = new LambdaQueryWrapper<>();
-        categoryWrapper.eq(Category::getId, articleVO.getCategoryId());
-        Category category = categoryService.getOne(categoryWrapper);
-        articleVO.setCategoryName(category.getName());
+        Category category = categoryService.getCategory(articleVO.getCategoryId());
+        if(category != null) articleVO.setCategoryName(category.getName());
+        //标签直接取内存索引
+        articleVO.setTags(tagIndexService.getTagNames(id));
+        return new ArticleDetail(article, articleVO);
+    }
 
-        return articleVO;
+    @ReadReplica
+    @Override
+    public Article getArticleStamp(Long id){
+        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(Article::getId, Article::getVersion, Article::getUpdateTime, Article::getStatus, Article::getIsDeleted)
+                .eq(Article::getId, id);
+        return this.getOne(wrapper, false);
+    }
+
+    @CounterWrite
+    @Override
+    public void recordView(Article article){
+        Long id = article.getId();
+        //只改浏览量一列，不覆盖整行也不动版本号
+        UpdateWrapper<Article> updateWrapper = new UpdateWrapper<>();
+        updateWrapper.eq("id", id);
+        updateWrapper.setSql("view_count = view_count + 1");
+        this.update(updateWrapper);
+        //只统计已发布文章的近期热度
+        if(Objects.equals(article.getStatus(), 1) && Objects.equals(article.getIsDeleted(), 0)) {
+            trendingService.recordView(id);
+        }
+        categoryService.recordView(id);
+        feedService.recordView(id);
+        analyticsService.record(id, AnalyticsService.Metric.VIEW);
     }
 
+    @ReadReplica
     @Override
     public List<ArticleVO> getArticleByKeyWord(String keyWord, List<Long> categoryId){
         UserContext.LoginUser loginUser = UserContext.get();
@@ -88,34 +145,15 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
             wrapper.in(Article::getCategoryId, categoryId);
         }
         List<Article> articles = this.list(wrapper);
-        //记录搜索记录
-        if(keyWord != null && !keyWord.isEmpty()) {
-            LambdaQueryWrapper<SearchHistory> searchHistoryWrapper = new LambdaQueryWrapper<>();
-            searchHistoryWrapper.eq(SearchHistory::getKeyword, keyWord);
-            //查询是否已有记录
-            SearchHistory searchHistory = searchHistoryService.getOne(searchHistoryWrapper);
-            SearchHistory searchHistoryNew = new SearchHistory();
-            if (searchHistory == null) {
-                searchHistoryNew.setKeyword(keyWord);
-                searchHistoryNew.setCreateTime(LocalDateTime.now());
-                searchHistoryNew.setSearchTimes(1);
-            }
-            if (searchHistory != null) {
-                //搜索量加 1
-                searchHistory.setSearchTimes(searchHistory.getSearchTimes() + 1);
-            }
-            searchHistoryService.save(searchHistoryNew);
-        }
         return EntityListToVOList.articleListToVOList(articles, userService);
     }
+    @ReadReplica
     @Override
     public List<ArticleVO> getMyArticleByKeyWord(String keyWord){
         UserContext.LoginUser loginUser = UserContext.get();
         LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
         wrapper.like(Article::getTitle, keyWord);
         if(!Objects.equals(loginUser.getRoleKey(), "admin")) {
-            //普通用户直接返回空
-            if(Objects.equals(loginUser.getRoleKey(), "user")) return new ArrayList<>();
             //作者还需要过滤不是自己的文章
             LambdaQueryWrapper<User> userWrapper = new LambdaQueryWrapper<>();
             userWrapper.eq(User::getUsername, loginUser.getUsername());
@@ -127,25 +165,18 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
 
         return EntityListToVOList.articleListToVOList(articles, userService);
     }
+    @ReadReplica
     @Override
-    public List<ArticleVO> getMyArticleByTag(List<String> tag){
+    public List<ArticleVO> getMyArticleByTag(List<String> tag, String mode, List<String> exclude){
         UserContext.LoginUser loginUser = UserContext.get();
-        LambdaQueryWrapper<ArticleTag> tagwrapper = new LambdaQueryWrapper<>();
-        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
-        //查询对应文章id
-        tagwrapper.in(ArticleTag::getName, tag);
-        tagwrapper.select(ArticleTag::getId);
-        List<ArticleTag> ArticleTagList =  articleTagService.list(tagwrapper);
-        if(ArticleTagList.isEmpty()){
+        //标签索引在内存里算出文章id，不查关联表
+        List<Long> articleIds = tagIndexService.queryArticleIds(tag, !"or".equalsIgnoreCase(mode), exclude);
+        if(articleIds.isEmpty()){
             return new ArrayList<>();
         }
-        //处理关联关系，集合去重提取文章id
-        Set<Long> ArticleIdList = ArticleTagList.stream().map(ArticleTag::getId).collect(Collectors.toSet());
-        //查询文章
-        wrapper.in(Article::getId, ArticleIdList);
+        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        wrapper.in(Article::getId, articleIds);
         if(!Objects.equals(loginUser.getRoleKey(), "admin")) {
-            //普通用户直接返回空
-            if(Objects.equals(loginUser.getRoleKey(), "user")) return new ArrayList<>();
             //作者还需要过滤不是自己的文章
             LambdaQueryWrapper<User> userWrapper = new LambdaQueryWrapper<>();
             userWrapper.eq(User::getUsername, loginUser.getUsername());
@@ -158,22 +189,17 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
 
         return EntityListToVOList.articleListToVOList(articles, userService);
     }
+    @ReadReplica
     @Override
-    public List<ArticleVO> getArticleByTag(List<String> tag){
+    public List<ArticleVO> getArticleByTag(List<String> tag, String mode, List<String> exclude){
         UserContext.LoginUser loginUser = UserContext.get();
-        LambdaQueryWrapper<ArticleTag> tagwrapper = new LambdaQueryWrapper<>();
-        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
-        //查询对应文章id
-        tagwrapper.in(ArticleTag::getName, tag);
-        tagwrapper.select(ArticleTag::getId);
-        List<ArticleTag> ArticleTagList =  articleTagService.list(tagwrapper);
-        if(ArticleTagList.isEmpty()){
+        //标签索引在内存里算出文章id，不查关联表
+        List<Long> articleIds = tagIndexService.queryArticleIds(tag, !"or".equalsIgnoreCase(mode), exclude);
+        if(articleIds.isEmpty()){
             return new ArrayList<>();
         }
-        //处理关联关系，集合去重提取文章id
-        Set<Long> ArticleIdList = ArticleTagList.stream().map(ArticleTag::getId).collect(Collectors.toSet());
-        //查询文章
-        wrapper.in(Article::getId, ArticleIdList);
+        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        wrapper.in(Article::getId, articleIds);
         if(!Objects.equals(loginUser.getRoleKey(), "admin")) {
             wrapper.eq(Article::getStatus, 1).eq(Article::getIsDeleted, 0);
         }
@@ -184,22 +210,20 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         return EntityListToVOList.articleListToVOList(articles, userService);
     }
 
+    @ReadReplica
     @Override
-    public String viewCountUpdate(ArticleDTO articleDTO){
-        UpdateWrapper<Article> updateWrapper = new UpdateWrapper<>();
-        updateWrapper.eq("id", articleDTO.getId());
-        updateWrapper.setSql("view_count = view_count + 1");
-        this.update(updateWrapper);
-        return "浏览量更新成功";
+    public IPage<ArticleVO> getHotArticle(int pageNum, int pageSize){
+        //管理员和普通用户看到的不同，分开合并
+        boolean admin = Objects.equals(UserContext.get().getRoleKey(), "admin");
+        return articleLoads.execute("getHotArticle:" + (admin ? "admin" : "public") + ":" + pageNum + ":" + pageSize,
+                () -> loadHotArticle(pageNum, pageSize, admin));
     }
 
-    @Override
-    public IPage<ArticleVO> getHotArticle(int pageNum, int pageSize){
+    private IPage<ArticleVO> loadHotArticle(int pageNum, int pageSize, boolean admin){
         //分页
         Page<Article> pageInfo = new Page<>(pageNum, pageSize);
-        UserContext.LoginUser loginUser = UserContext.get();
         LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
-        if(!Objects.equals(loginUser.getRoleKey(), "admin")) {
+        if(!admin) {
             wrapper.eq(Article::getStatus, 1).eq(Article::getIsDeleted, 0);
         }
         //按浏览量降序
@@ -211,16 +235,38 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         return  articleVOList.setRecords(EntityListToVOList.articleListToVOList(pageInfo.getRecords(), userService));
 
     }
+
+    @ReadReplica
+    @Override
+    public IPage<ArticleVO> getTrendingArticle(int pageNum, int pageSize){
+        List<Long> topIds = trendingService.getTopArticleIds();
+        Page<ArticleVO> articleVOList = new Page<>(pageNum, pageSize, topIds.size());
+        int from = (int) Math.min((long) Math.max(pageNum - 1, 0) * pageSize, topIds.size());
+        int to = Math.min(from + pageSize, topIds.size());
+        if(from >= to){
+            return articleVOList.setRecords(new ArrayList<>());
+        }
+        //只查当前页的文章，再按快照顺序排列
+        List<Long> pageIds = topIds.subList(from, to);
+        Map<Long, Article> articleMap = this.listByIds(pageIds).stream()
+                .filter(article -> Objects.equals(article.getStatus(), 1) && Objects.equals(article.getIsDeleted(), 0))
+                .collect(Collectors.toMap(Article::getId, article -> article));
+        List<Article> articles = new ArrayList<>();
+        for(Long id : pageIds){
+            Article article = articleMap.get(id);
+            if(article != null) articles.add(article);
+        }
+        return articleVOList.setRecords(EntityListToVOList.articleListToVOList(articles, userService));
+    }
     //==============创作者权限===================================//
 
+    @ReadReplica
     @Override
     public List<ArticleVO> getArticleManagerList(){
         UserContext.LoginUser loginUser = UserContext.get();
         LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
         //不是管理员就过滤草稿和已删除的文章
         if(!Objects.equals(loginUser.getRoleKey(), "admin")) {
-            //普通用户直接返回空
-            if(Objects.equals(loginUser.getRoleKey(), "user")) return new ArrayList<>();
             //作者还需要过滤不是自己的文章
             LambdaQueryWrapper<User> userWrapper = new LambdaQueryWrapper<>();
             userWrapper.eq(User::getUsername, loginUser.getUsername());
@@ -234,6 +280,7 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
     }
 
     @Override
+    @Transactional(rollbackFor =  Exception.class)
     public String deleteMyArticle(ArticleDTO articleDTO){
         LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
         LambdaQueryWrapper<User> userWrapper = new LambdaQueryWrapper<>();
@@ -246,17 +293,22 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         if(article.getCreateBy() != user.getId()){
             return "错误";
         }
-        //逻辑删除
+        //逻辑删除，只改状态列
         article.setIsDeleted(1);
-        this.updateById(article);
+        markArticle(article.getId(), Article::getIsDeleted, 1);
+        articleEventService.publish(ArticleEventService.Type.STATE_CHANGED, article);
         return "删除成功";
     }
 //==============管理员权限===================================//
+    @ReadReplica
     @Override
     public List<ArticleVO> getArticleListAdmin() {
         /*
           管理员Token校验
          */
+        if(feedService.isLoaded()) {
+            return feedService.getAdminFeed();
+        }
         LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
 
         //按更新时间排序
@@ -270,7 +322,6 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
     @Transactional(rollbackFor =  Exception.class)
     public String publishArticle(ArticleDTO articleDTO){
         UserContext.LoginUser loginUser = UserContext.get();
-        if(Objects.equals(loginUser.getRoleKey(), "user")) return "错误操作";
         LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(User::getUsername, loginUser.getUsername());
         User user = userService.getOne(wrapper);
@@ -284,36 +335,27 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         article.setUpdateTime(LocalDateTime.now());
         //创建人
         article.setCreateBy(user.getId());
-        //分类
-        LambdaQueryWrapper<Category> categoryWrapper = new LambdaQueryWrapper<>();
-        categoryWrapper.eq(Category::getName, articleDTO.getCategoryName());
-        Category category = categoryService.getOne(categoryWrapper);
-        if(category == null){
-            //创建分类
-            Category categoryNew = new Category();
-            categoryNew.setName(articleDTO.getCategoryName());
-            categoryNew.setCreateTime(LocalDateTime.now());
-            categoryService.save(categoryNew);
-            //给新分类的id
-            article.setCategoryId(categoryNew.getId());
-        }
-        else{
-            //给id
-            article.setCategoryId(category.getId());
-        }
+        //分类，没有就创建
+        Category category = categoryService.getOrCreateByName(articleDTO.getCategoryName());
+        article.setCategoryId(category.getId());
         //默认申请
         //article.setStatus(0);
         this.save(article);
+        articleEventService.publish(ArticleEventService.Type.PUBLISHED, article);
         // 处理表关联
+        if(articleDTO.getTags() != null && !articleDTO.getTags().isEmpty()){
+            articleTagService.replaceArticleTags(article.getId(), articleDTO.getTags());
+        }
 
         return "发布成功";
     }
 
     @Override
+    @Transactional(rollbackFor =  Exception.class)
     public String updateArticle(ArticleDTO articleDTO){
+        //没带版本号无法判断是否覆盖了别人的修改，编辑页必须带回读到的版本号
+        if(articleDTO.getVersion() == null) return "缺少版本号，请刷新后重试";
         UserContext.LoginUser loginUser = UserContext.get();
-        //权限校验
-        if(Objects.equals(loginUser.getRoleKey(), "user")) return "错误操作";
         LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(User::getUsername, loginUser.getUsername());
         User user = userService.getOne(wrapper);
@@ -323,50 +365,179 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         articleWrapper.eq(Article::getId, articleDTO.getId());
         Article article = this.getOne(articleWrapper);
         if(article == null || article.getCreateBy() != user.getId()) return "错误操作";
-        //更新文章
+        //更新文章，版本号用编辑页读到的
         BeanUtils.copyProperties(articleDTO, article);
         //更新时间
         article.setUpdateTime(LocalDateTime.now());
-        //分类
-        LambdaQueryWrapper<Category> categoryWrapper = new LambdaQueryWrapper<>();
-        categoryWrapper.eq(Category::getName, articleDTO.getCategoryName());
-        Category category = categoryService.getOne(categoryWrapper);
-        if(category == null){
-            //创建分类
-            Category categoryNew = new Category();
-            categoryNew.setName(articleDTO.getCategoryName());
-            categoryNew.setCreateTime(LocalDateTime.now());
-            categoryService.save(categoryNew);
-            //给新分类的id
-            article.setCategoryId(categoryNew.getId());
+        //分类，没有就创建
+        Category category = categoryService.getOrCreateByName(articleDTO.getCategoryName());
+        article.setCategoryId(category.getId());
+        //只写编辑页能改的列，updateById 会把读出来的浏览量写回去，覆盖期间累加的浏览
+        //乐观锁：version 不匹配时一行也不更新，不持有行锁等编辑完成
+        int version = article.getVersion();
+        LambdaUpdateWrapper<Article> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(Article::getId, article.getId())
+                .eq(Article::getVersion, version)
+                .set(article.getTitle() != null, Article::getTitle, article.getTitle())
+                .set(article.getSummary() != null, Article::getSummary, article.getSummary())
+                .set(article.getContent() != null, Article::getContent, article.getContent())
+                .set(article.getThumbnail() != null, Article::getThumbnail, article.getThumbnail())
+                .set(article.getIsTop() != null, Article::getIsTop, article.getIsTop())
+                .set(article.getStatus() != null, Article::getStatus, article.getStatus())
+                .set(article.getIsComment() != null, Article::getIsComment, article.getIsComment())
+                .set(article.getName() != null, Article::getName, article.getName())
+                .set(article.getLatitude() != null, Article::getLatitude, article.getLatitude())
+                .set(article.getLongitude() != null, Article::getLongitude, article.getLongitude())
+                .set(Article::getCategoryId, article.getCategoryId())
+                .set(Article::getUpdateTime, article.getUpdateTime())
+                .setSql("version = version + 1");
+        if(!this.update(updateWrapper)){
+            //事务里的普通查询读的是快照，这里用当前读拿最新的版本号
+            LambdaQueryWrapper<Article> versionWrapper = new LambdaQueryWrapper<>();
+            versionWrapper.select(Article::getVersion).eq(Article::getId, article.getId()).last("LOCK IN SHARE MODE");
+            Article current = this.getOne(versionWrapper, false);
+            throw new VersionConflictException("文章已被修改，请刷新后重试", current == null ? null : current.getVersion());
         }
-        else{
-            //给id
-            article.setCategoryId(category.getId());
+        article.setVersion(version + 1);
+        articleEventService.publish(ArticleEventService.Type.UPDATED, article);
+        // 处理表关联，没传标签表示不修改
+        if(articleDTO.getTags() != null){
+            articleTagService.replaceArticleTags(article.getId(), articleDTO.getTags());
         }
-        this.updateById(article);
-        // 处理表关联
         return "更新成功";
     }
 
     @Override
+    @Transactional(rollbackFor =  Exception.class)
     public String deleteArticle(ArticleDTO articleDTO){
 
         Article article = this.getById(articleDTO.getId());
+        if(article == null) return "错误操作";
         article.setIsDeleted(1);
-        this.updateById(article);
+        markArticle(article.getId(), Article::getIsDeleted, 1);
+        //发布写进库里的版本号
+        article.setVersion(article.getVersion() + 1);
+        articleEventService.publish(ArticleEventService.Type.STATE_CHANGED, article);
 
         return "删除成功";
     }
     @Override
+    @Transactional(rollbackFor =  Exception.class)
     public String accessArticle(Long id){
-        UserContext.LoginUser loginUser = UserContext.get();
-        if(!Objects.equals(loginUser.getRoleKey(), "admin")) return "错误操作";
         Article article = this.getById(id);
         if(article == null) return "错误操作";
         //允许通过
         article.setStatus(1);
-        this.updateById(article);
+        markArticle(id, Article::getStatus, 1);
+        article.setVersion(article.getVersion() + 1);
+        articleEventService.publish(ArticleEventService.Type.STATE_CHANGED, article);
         return "操作成功";
     }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<BatchResultVO> batchAccessArticle(List<Long> ids){
+        return batchMark(ids, null, Article::getStatus, Article::setStatus, 1);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<BatchResultVO> batchDeleteArticle(List<Long> ids){
+        return batchMark(ids, null, Article::getIsDeleted, Article::setIsDeleted, 1);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<BatchResultVO> batchRestoreArticle(List<Long> ids){
+        return batchMark(ids, null, Article::getIsDeleted, Article::setIsDeleted, 0);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<BatchResultVO> batchDeleteMyArticle(List<Long> ids){
+        UserContext.LoginUser loginUser = UserContext.get();
+        LambdaQueryWrapper<User> userWrapper = new LambdaQueryWrapper<>();
+        userWrapper.eq(User::getUsername, loginUser.getUsername());
+        User user = userService.getOne(userWrapper);
+        if(user == null) return rejectAll(ids, "错误操作");
+        return batchMark(ids, user.getId(), Article::getIsDeleted, Article::setIsDeleted, 1);
+    }
+
+    /**
+     * 批量把一个状态列改成目标值：一次查出所有文章判断能否操作，再用一条 UPDATE ... WHERE id IN 改掉
+     * UPDATE 带上 列 <> 目标值，并发下别人先改了也只是少影响几行，最终都是目标状态
+     * @param ownerId 不为空时只能操作该用户的文章
+     */
+    private List<BatchResultVO> batchMark(List<Long> ids, Long ownerId, SFunction<Article, Integer> column,
+                                          BiConsumer<Article, Integer> setter, int value){
+        if(ids == null || ids.isEmpty()) return new ArrayList<>();
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if(distinct.size() > MAX_BATCH) return rejectAll(distinct, "一次最多操作 " + MAX_BATCH + " 篇文章");
+        if(distinct.isEmpty()) return new ArrayList<>();
+        //事件里的快照要带上标题、更新时间和版本号，订阅者按版本号丢弃旧快照
+        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(Article::getId, Article::getTitle, Article::getCategoryId, Article::getStatus, Article::getIsDeleted,
+                        Article::getViewCount, Article::getCreateBy, Article::getUpdateTime, Article::getVersion)
+                .in(Article::getId, distinct);
+        Map<Long, Article> articleMap = this.list(wrapper).stream().collect(Collectors.toMap(Article::getId, article -> article));
+
+        List<BatchResultVO> results = new ArrayList<>(distinct.size());
+        List<Article> targets = new ArrayList<>();
+        for(Long id : distinct){
+            Article article = articleMap.get(id);
+            if(article == null){
+                results.add(new BatchResultVO(id, false, "文章不存在"));
+            } else if(ownerId != null && article.getCreateBy() != ownerId){
+                results.add(new BatchResultVO(id, false, "错误操作"));
+            } else if(Objects.equals(column.apply(article), value)){
+                results.add(new BatchResultVO(id, true, "无需操作"));
+            } else {
+                results.add(new BatchResultVO(id, true, "操作成功"));
+                targets.add(article);
+            }
+        }
+        if(targets.isEmpty()) return results;
+
+        LambdaUpdateWrapper<Article> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.in(Article::getId, targets.stream().map(Article::getId).collect(Collectors.toList()))
+                .and(w -> w.ne(column, value).or().isNull(column))
+                .set(column, value)
+                .setSql("version = version + 1");
+        this.update(updateWrapper);
+        //一次插入所有事件，订阅者整批处理
+        for(Article article : targets){
+            setter.accept(article, value);
+            article.setVersion(article.getVersion() + 1);
+        }
+        articleEventService.publish(ArticleEventService.Type.STATE_CHANGED, targets);
+        return results;
+    }
+
+    /**
+     * 整批不能处理时每个id都返回同一个失败原因
+     */
+    private static List<BatchResultVO> rejectAll(Collection<Long> ids, String msg){
+        List<BatchResultVO> results = new ArrayList<>();
+        if(ids == null) return results;
+        for(Long id : new LinkedHashSet<>(ids)){
+            if(id != null) results.add(new BatchResultVO(id, false, msg));
+        }
+        return results;
+    }
+
+    //合并加载的结果由多个请求共享，只读
+    private record ArticleDetail(Article article, ArticleVO articleVO) {
+    }
+
+    /**
+     * 审核、删除这类只改一个状态列的操作不覆盖整行，也不校验版本号；版本号加一让详情的 ETag 失效
+     */
+    private void markArticle(Long id, SFunction<Article, ?> column, Object value){
+        LambdaUpdateWrapper<Article> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(Article::getId, id)
+                .set(column, value)
+                .setSql("version = version + 1");
+        this.update(updateWrapper);
+    }
 }
@@ -1,19 +1,103 @@
 package com.polo.Blog.Service.Impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.polo.Blog.Domain.Entity.Article;
 import com.polo.Blog.Domain.Entity.ArticleTag;
-import com.polo.Blog.Domain.OV.ArticleVO;
+import com.polo.Blog.Domain.Entity.ArticleTagRelation;
 import com.polo.Blog.Mapper.ArticleTagMapper;
+import com.polo.Blog.Mapper.ArticleTagRelationMapper;
 import com.polo.Blog.Service.ArticleTagService;
+import com.polo.Blog.Service.CacheInvalidationService;
+import com.polo.Blog.Service.TagIndexService;
+import com.polo.Blog.Utils.TransactionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
 
 @Service
 public class ArticleTagServiceImpl extends ServiceImpl<ArticleTagMapper, ArticleTag> implements ArticleTagService {
+    @Autowired
+    private TagIndexService tagIndexService;
+    @Autowired
+    private ArticleTagRelationMapper articleTagRelationMapper;
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
 
+    @Override
+    public List<Long> resolveTagIds(Collection<String> names){
+        //库里标签名比较不区分大小写，这里按小写合并，只差大小写的算同一个标签
+        Map<String, Long> resolved = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for(String name : names){
+            if(name == null || name.isBlank()) continue;
+            String tagName = name.trim();
+            if(resolved.containsKey(key(tagName))) continue;
+            //内存字典命中就不查库
+            Long tagId = tagIndexService.findTagId(tagName);
+            resolved.put(key(tagName), tagId);
+            if(tagId == null) missing.add(tagName);
+        }
+        if(!missing.isEmpty()){
+            //字典里没有的再查一次库，可能是别的节点刚建的
+            LambdaQueryWrapper<ArticleTag> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(ArticleTag::getId, ArticleTag::getName).in(ArticleTag::getName, missing);
+            for(ArticleTag tag : this.list(wrapper)){
+                resolved.put(key(tag.getName()), tag.getId());
+                tagIndexService.putTag(tag.getId(), tag.getName());
+            }
+            //仍然没有的一次批量创建
+            List<ArticleTag> newTags = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            for(String tagName : missing){
+                if(resolved.get(key(tagName)) != null) continue;
+                newTags.add(new ArticleTag(IdWorker.getId(), tagName, now, now, 0));
+            }
+            if(!newTags.isEmpty()){
+                this.baseMapper.insertIgnoreBatch(newTags);
+                //并发创建的同名标签被忽略了，按名称重新取id；用当前读，事务快照里看不到别人刚提交的
+                LambdaQueryWrapper<ArticleTag> createdWrapper = new LambdaQueryWrapper<>();
+                createdWrapper.select(ArticleTag::getId, ArticleTag::getName)
+                        .in(ArticleTag::getName, newTags.stream().map(ArticleTag::getName).toList())
+                        .last("LOCK IN SHARE MODE");
+                List<ArticleTag> created = this.list(createdWrapper);
+                for(ArticleTag tag : created){
+                    resolved.put(key(tag.getName()), tag.getId());
+                }
+                TransactionUtils.afterCommit(() -> created.forEach(tag -> tagIndexService.putTag(tag.getId(), tag.getName())));
+            }
+        }
+        return resolved.values().stream().filter(Objects::nonNull).distinct().toList();
+    }
 
+    @Override
+    public void replaceArticleTags(Long articleId, Collection<String> names){
+        Set<Long> newTagIds = new HashSet<>(resolveTagIds(names));
+        //以库里的关联为准计算差异
+        LambdaQueryWrapper<ArticleTagRelation> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(ArticleTagRelation::getTagId).eq(ArticleTagRelation::getArticleId, articleId);
+        Set<Long> oldTagIds = new HashSet<>();
+        for(ArticleTagRelation relation : articleTagRelationMapper.selectList(wrapper)){
+            oldTagIds.add(relation.getTagId());
+        }
+        Set<Long> added = new HashSet<>(newTagIds);
+        added.removeAll(oldTagIds);
+        Set<Long> removed = new HashSet<>(oldTagIds);
+        removed.removeAll(newTagIds);
+        if(!added.isEmpty()){
+            articleTagRelationMapper.insertBatch(articleId, added);
+        }
+        if(!removed.isEmpty()){
+            articleTagRelationMapper.deleteBatch(articleId, removed);
+        }
+        TransactionUtils.afterCommit(() -> tagIndexService.setArticleTags(articleId, newTagIds));
+        //其他节点的标签索引按库里的关联重新加载这篇文章
+        cacheInvalidationService.broadcast(CacheInvalidationService.Region.TAG, articleId);
+    }
 
+    private static String key(String name){
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
 }
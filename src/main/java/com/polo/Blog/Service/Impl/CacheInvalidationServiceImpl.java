@@ -0,0 +1,226 @@
+package com.polo.Blog.Service.Impl;
+
+import com.polo.Blog.Service.CacheInvalidationListener;
+import com.polo.Blog.Service.CacheInvalidationService;
+import com.polo.Blog.Utils.PrometheusWriter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 失效日志表的自增id就是水位线：每次拉取 id > 水位线 的记录，一条索引范围扫描，没有写入时返回空
+ * 自增id在插入时分配、提交时才可见，先分配的事务可能后提交；拉取时跳过的id记为空洞，之后每次按id补查，超时(回滚留下的)就放弃
+ * 水位线在交给监听者之前就前移了，监听者处理失败的键留下来并入下一次拉取重试，再次失败就改为整个分区重新加载
+ */
+@Slf4j
+@Service
+public class CacheInvalidationServiceImpl implements CacheInvalidationService {
+    private static final String INSERT_LOG =
+            "INSERT INTO sys_cache_invalidation (region, cache_key, node_id, create_time) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_AFTER =
+            "SELECT id, region, cache_key, node_id, create_time FROM sys_cache_invalidation WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_GAPS =
+            "SELECT id, region, cache_key, node_id, create_time FROM sys_cache_invalidation WHERE id IN (:ids)";
+    //最多记住的空洞数，自增步长异常时不至于无限增长
+    private static final int MAX_GAPS = 1024;
+    private static final RowMapper<Change> CHANGE_MAPPER = (rs, rowNum) -> new Change(rs.getLong("id"),
+            rs.getString("region"), rs.getString("cache_key"), rs.getString("node_id"),
+            rs.getTimestamp("create_time").toLocalDateTime());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    //监听者里有依赖本服务广播的(文章事件、分类)，延迟到拉取时再取
+    @Autowired
+    private ObjectProvider<CacheInvalidationListener> listeners;
+    @Value("${cache-invalidation.enabled:true}")
+    private boolean enabled;
+    @Value("${cache-invalidation.node-id:}")
+    private String nodeId;
+    @Value("${cache-invalidation.batch-size:500}")
+    private int batchSize;
+    @Value("${cache-invalidation.gap-timeout-ms:10000}")
+    private long gapTimeoutMs;
+    @Value("${cache-invalidation.retention-hours:6}")
+    private long retentionHours;
+
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    //只在 poll 里读写(synchronized)
+    private long watermark = -1;
+    //空洞id -> 第一次发现的时间
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+    //监听者 -> 上次处理失败、等下次拉取重试的键
+    private final Map<CacheInvalidationListener, Set<String>> retries = new HashMap<>();
+    private final LongAdder broadcasted = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile long lagMillis;
+
+    @PostConstruct
+    public void init() {
+        namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        if (nodeId == null || nodeId.isBlank()) {
+            //pid@主机名，再加随机后缀区分同一进程里的多个上下文
+            String runtime = ManagementFactory.getRuntimeMXBean().getName();
+            String suffix = Long.toString(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE), 36);
+            nodeId = (runtime.length() > 48 ? runtime.substring(0, 48) : runtime) + '-' + suffix;
+        }
+        try {
+            initWatermark();
+        } catch (Exception e) {
+            log.warn("缓存失效日志水位线初始化失败，首次拉取时重试: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void broadcast(Region region, Object key) {
+        if (key == null) return;
+        broadcast(region, List.of(key));
+    }
+
+    @Override
+    public void broadcast(Region region, Collection<?> keys) {
+        if (!enabled || keys == null || keys.isEmpty()) return;
+        Set<String> distinct = new LinkedHashSet<>();
+        for (Object key : keys) {
+            if (key != null) distinct.add(String.valueOf(key));
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(distinct.size());
+        for (String key : distinct) {
+            args.add(new Object[]{region.name(), key, nodeId, now});
+        }
+        //和业务写入同一个连接，随事务提交
+        jdbcTemplate.batchUpdate(INSERT_LOG, args);
+        broadcasted.add(args.size());
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 拉取其他节点的失效日志：先补查空洞，再取水位线之后的新记录，按分区合并后交给监听者
+     */
+    @Scheduled(fixedDelayString = "${cache-invalidation.poll-ms:1000}")
+    public synchronized void poll() {
+        if (!enabled) return;
+        try {
+            if (watermark < 0) initWatermark();
+            long now = System.currentTimeMillis();
+            List<Change> changes = new ArrayList<>();
+            if (!gaps.isEmpty()) {
+                for (Change change : namedJdbcTemplate.query(SELECT_GAPS, Map.of("ids", gaps.keySet()), CHANGE_MAPPER)) {
+                    gaps.remove(change.id());
+                    changes.add(change);
+                }
+                gaps.values().removeIf(seenAt -> now - seenAt > gapTimeoutMs);
+            }
+            for (Change change : jdbcTemplate.query(SELECT_AFTER, CHANGE_MAPPER, watermark, batchSize)) {
+                for (long missing = watermark + 1; missing < change.id() && gaps.size() < MAX_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                watermark = change.id();
+                changes.add(change);
+            }
+            dispatch(changes, now);
+        } catch (Exception e) {
+            log.warn("缓存失效日志拉取失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清理保留时间之前的日志，节点停机超过保留时间后重启会从最新的水位线开始
+     */
+    @Scheduled(cron = "${cache-invalidation.cleanup-cron:0 15 * * * ?}")
+    public void cleanup() {
+        if (!enabled) return;
+        try {
+            jdbcTemplate.update("DELETE FROM sys_cache_invalidation WHERE create_time < ?",
+                    Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours)));
+        } catch (Exception e) {
+            log.warn("缓存失效日志清理失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 导出 cache_invalidation_total(按结果)、未补上的空洞数和最近一次收到的日志延迟
+     */
+    public void exportTo(PrometheusWriter writer) {
+        writer.type("cache_invalidation_total", "counter", "Cross-node cache invalidations by outcome");
+        writer.sample("cache_invalidation_total", broadcasted.sum(), "result", "broadcast");
+        writer.sample("cache_invalidation_total", received.sum(), "result", "received");
+        writer.sample("cache_invalidation_total", failed.sum(), "result", "failed");
+        writer.type("cache_invalidation_gaps", "gauge", "Log ids skipped by the watermark and still awaited");
+        writer.sample("cache_invalidation_gaps", gapCount());
+        writer.type("cache_invalidation_retry_keys", "gauge", "Keys whose listener failed and will be retried on the next poll");
+        writer.sample("cache_invalidation_retry_keys", retryCount());
+        writer.type("cache_invalidation_lag_seconds", "gauge", "Age of the newest remote invalidation when it was applied");
+        writer.sample("cache_invalidation_lag_seconds", lagMillis / 1000.0);
+    }
+
+    private synchronized int gapCount() {
+        return gaps.size();
+    }
+
+    private synchronized int retryCount() {
+        return retries.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void initWatermark() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM sys_cache_invalidation", Long.class);
+        //启动前的变化由各缓存启动时的全量加载覆盖
+        watermark = max == null ? 0 : max;
+    }
+
+    private void dispatch(List<Change> changes, long now) {
+        Map<Region, Set<String>> keysByRegion = new EnumMap<>(Region.class);
+        for (Change change : changes) {
+            if (nodeId.equals(change.nodeId())) continue;
+            Region region;
+            try {
+                region = Region.valueOf(change.region());
+            } catch (IllegalArgumentException e) {
+                //新版本节点写入的分区，本节点没有对应缓存
+                continue;
+            }
+            keysByRegion.computeIfAbsent(region, key -> new LinkedHashSet<>()).add(change.key());
+            received.increment();
+            lagMillis = Math.max(0, now - Timestamp.valueOf(change.createTime()).getTime());
+        }
+        if (keysByRegion.isEmpty() && retries.isEmpty()) return;
+        for (CacheInvalidationListener listener : listeners) {
+            Set<String> keys = new LinkedHashSet<>(keysByRegion.getOrDefault(listener.region(), Set.of()));
+            Set<String> pending = retries.remove(listener);
+            boolean retrying = pending != null;
+            if (retrying) keys.addAll(pending);
+            if (keys.isEmpty()) continue;
+            try {
+                listener.onInvalidate(Collections.unmodifiableSet(keys));
+            } catch (Exception e) {
+                failed.add(keys.size());
+                //重试过还失败，可能是某个键本身有问题，下次整个分区重新加载
+                retries.put(listener, retrying ? new LinkedHashSet<>(Set.of(ALL)) : keys);
+                log.warn("缓存失效处理失败，分区 {} 键数 {}，下次拉取{}: {}", listener.region(), keys.size(),
+                        retrying ? "整个分区重新加载" : "重试", e.getMessage());
+            }
+        }
+    }
+
+    private record Change(long id, String region, String key, String nodeId, LocalDateTime createTime) {
+    }
+}
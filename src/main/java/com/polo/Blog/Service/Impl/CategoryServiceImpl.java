@@ -2,21 +2,306 @@ package com.polo.Blog.Service.Impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.polo.Blog.Domain.Entity.Article;
+import com.polo.Blog.Domain.Entity.ArticleEvent;
 import com.polo.Blog.Domain.Entity.Category;
+import com.polo.Blog.Domain.OV.CategoryTreeVO;
+import com.polo.Blog.Mapper.ArticleMapper;
 import com.polo.Blog.Mapper.CategoryMapper;
+import com.polo.Blog.Service.ArticleEventSubscriber;
+import com.polo.Blog.Service.CacheInvalidationListener;
+import com.polo.Blog.Service.CacheInvalidationService;
 import com.polo.Blog.Service.CategoryService;
+import com.polo.Blog.Service.ResponseCacheService;
+import com.polo.Blog.Utils.CacheStats;
+import com.polo.Blog.Utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 分类和每篇文章的(分类, 是否发布, 浏览量)启动时加载到内存
+ * 文章写入、浏览时按差值更新各分类的文章数和浏览量，定时重排热门分类和分类树快照，读接口不查库
+ */
+@Slf4j
 @Service
-public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category> implements CategoryService {
+public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category> implements CategoryService, ArticleEventSubscriber, CacheInvalidationListener, CacheStats {
+    //顶级分类的 pid
+    private static final long ROOT_PID = -1L;
+
+    @Autowired
+    private ArticleMapper articleMapper;
+    @Autowired
+    private ResponseCacheService responseCacheService;
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+    @Value("${category.hot-size:10}")
+    private int hotSize;
+
+    private final Map<Long, Category> categories = new ConcurrentHashMap<>();
+    private final Map<String, Long> categoryIdByName = new ConcurrentHashMap<>();
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, ArticleStat> articleStats = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+    private volatile List<Category> hotSnapshot = List.of();
+    private volatile List<CategoryTreeVO> treeSnapshot = List.of();
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("分类统计加载失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 全量重建
+     */
+    public synchronized void reload() {
+        LambdaQueryWrapper<Category> categoryWrapper = new LambdaQueryWrapper<>();
+        categoryWrapper.eq(Category::getIsDeleted, 0);
+        List<Category> categoryList = this.list(categoryWrapper);
+        Map<Long, ArticleStat> stats = new HashMap<>();
+        LambdaQueryWrapper<Article> articleWrapper = new LambdaQueryWrapper<>();
+        articleWrapper.select(Article::getId, Article::getCategoryId, Article::getStatus, Article::getIsDeleted, Article::getViewCount);
+        articleMapper.selectList(articleWrapper, context -> {
+            Article article = context.getResultObject();
+            stats.put(article.getId(), ArticleStat.of(article, article.getViewCount()));
+        });
+
+        categories.clear();
+        categoryIdByName.clear();
+        categoryList.forEach(this::putCategory);
+        articleStats.clear();
+        articleStats.putAll(stats);
+        counters.clear();
+        stats.values().forEach(stat -> stat.apply(counter(stat.categoryId), 1));
+        refresh();
+        log.info("分类统计加载完成，分类数: {}，文章数: {}", categoryList.size(), stats.size());
+    }
 
     @Override
     public List<Category> getHotCategoryList(){
+        return hotSnapshot;
+    }
+
+    @Override
+    public List<CategoryTreeVO> getCategoryTree(){
+        return treeSnapshot;
+    }
+
+    @Override
+    public Category getCategory(Long id){
+        if(id == null) return null;
+        Category category = categories.get(id);
+        if(category != null) return category;
+        //内存里没有(加载失败或别的节点新建的)再查库
+        category = this.getById(id);
+        if(category != null && Objects.equals(category.getIsDeleted(), 0)) registerCategory(category);
+        return category;
+    }
+
+    @Override
+    public Category getOrCreateByName(String name){
+        Long id = name == null ? null : categoryIdByName.get(name);
+        if(id != null && categories.containsKey(id)) return categories.get(id);
         LambdaQueryWrapper<Category> wrapper = new LambdaQueryWrapper<>();
-        wrapper.orderByDesc(Category::getCreateTime);
-        List<Category> categoryList = this.list(wrapper);
-        return categoryList.size() > 10 ? categoryList.subList(0, 11) : categoryList;
+        wrapper.eq(Category::getName, name);
+        Category category = this.getOne(wrapper, false);
+        if(category == null){
+            //创建分类
+            category = new Category();
+            category.setName(name);
+            category.setPid(ROOT_PID);
+            category.setSort(0);
+            category.setCreateTime(LocalDateTime.now());
+            category.setUpdateTime(LocalDateTime.now());
+            category.setIsDeleted(0);
+            this.save(category);
+            cacheInvalidationService.broadcast(CacheInvalidationService.Region.CATEGORY, category.getId());
+        }
+        Category created = category;
+        TransactionUtils.afterCommit(() -> registerCategory(created));
+        return category;
+    }
+
+    @Override
+    public void syncArticle(Article article){
+        if(article == null || article.getId() == null) return;
+        Long articleId = article.getId();
+        long categoryId = article.getCategoryId();
+        Integer status = article.getStatus();
+        Integer isDeleted = article.getIsDeleted();
+        long viewCount = article.getViewCount();
+        TransactionUtils.afterCommit(() -> {
+            articleStats.compute(articleId, (id, old) -> {
+                //浏览量以内存为准，传进来的实体可能是旧值
+                ArticleStat stat = new ArticleStat(categoryId,
+                        Objects.equals(status, 1) && Objects.equals(isDeleted, 0),
+                        old == null ? viewCount : old.views);
+                if(old != null) old.apply(counter(old.categoryId), -1);
+                stat.apply(counter(stat.categoryId), 1);
+                return stat;
+            });
+            dirty = true;
+        });
+    }
+
+    @Override
+    public void onArticleEvents(List<ArticleEvent> events){
+        //统计按快照整条覆盖，重复投递结果不变
+        for(ArticleEvent event : events){
+            syncArticle(event.getArticle());
+        }
+    }
+
+    @Override
+    public CacheInvalidationService.Region region(){
+        return CacheInvalidationService.Region.CATEGORY;
+    }
+
+    @Override
+    public void onInvalidate(Set<String> keys){
+        if(keys.contains(CacheInvalidationService.ALL)){
+            reload();
+            return;
+        }
+        //其他节点新建的分类，文章统计由文章失效同步
+        List<Long> ids = keys.stream().map(Long::valueOf).toList();
+        for(Category category : this.listByIds(ids)){
+            if(Objects.equals(category.getIsDeleted(), 0)) putCategory(category);
+        }
+        refresh();
+    }
+
+    @Override
+    public void recordView(Long articleId){
+        if(articleId == null) return;
+        articleStats.computeIfPresent(articleId, (id, stat) -> {
+            if(stat.published) counter(stat.categoryId).views.incrementAndGet();
+            return new ArticleStat(stat.categoryId, stat.published, stat.views + 1);
+        });
+        dirty = true;
+    }
+
+    @Override
+    public String cacheName() {
+        return "category_stats";
+    }
+
+    @Override
+    public long cacheSize() {
+        return articleStats.size();
+    }
+
+    /**
+     * 有变化时重排快照
+     */
+    @Scheduled(fixedDelayString = "${category.refresh-ms:10000}")
+    public void refreshIfDirty() {
+        if(dirty) refresh();
+    }
+
+    private synchronized void refresh() {
+        dirty = false;
+        Map<Long, List<Category>> childrenByPid = new HashMap<>();
+        for(Category category : categories.values()){
+            //父分类不存在的当顶级处理
+            Long pid = category.getPid() != null && categories.containsKey(category.getPid()) ? category.getPid() : ROOT_PID;
+            childrenByPid.computeIfAbsent(pid, key -> new ArrayList<>()).add(category);
+        }
+        Comparator<Category> bySort = Comparator.comparing((Category category) -> category.getSort() == null ? 0 : category.getSort())
+                .thenComparing(Category::getId);
+        childrenByPid.values().forEach(children -> children.sort(bySort));
+
+        Map<Long, CategoryTreeVO> nodes = new HashMap<>();
+        List<CategoryTreeVO> tree = new ArrayList<>();
+        for(Category root : childrenByPid.getOrDefault(ROOT_PID, List.of())){
+            tree.add(buildNode(root, childrenByPid, nodes));
+        }
+        //浏览量含子分类，相同再比文章数和排序
+        List<CategoryTreeVO> ranked = new ArrayList<>(nodes.values());
+        ranked.sort(Comparator.comparingLong(CategoryTreeVO::getViewCount).reversed()
+                .thenComparing(Comparator.comparingLong(CategoryTreeVO::getArticleCount).reversed())
+                .thenComparing(node -> node.getSort() == null ? 0 : node.getSort()));
+        List<Category> hot = new ArrayList<>();
+        for(CategoryTreeVO node : ranked.subList(0, Math.min(hotSize, ranked.size()))){
+            Category category = new Category();
+            BeanUtils.copyProperties(categories.get(node.getId()), category);
+            hot.add(category);
+        }
+        hotSnapshot = Collections.unmodifiableList(hot);
+        treeSnapshot = Collections.unmodifiableList(tree);
+        responseCacheService.invalidate(ResponseCacheService.Region.CATEGORY);
+    }
+
+    private CategoryTreeVO buildNode(Category category, Map<Long, List<Category>> childrenByPid, Map<Long, CategoryTreeVO> nodes){
+        Counter counter = counters.get(category.getId());
+        CategoryTreeVO node = new CategoryTreeVO();
+        node.setId(category.getId());
+        node.setName(category.getName());
+        node.setPid(category.getPid());
+        node.setDescription(category.getDescription());
+        node.setSort(category.getSort());
+        node.setArticleCount(counter == null ? 0 : counter.articles.get());
+        long views = counter == null ? 0 : counter.views.get();
+        nodes.put(category.getId(), node);
+        for(Category child : childrenByPid.getOrDefault(category.getId(), List.of())){
+            //pid 成环时不重复展开
+            if(nodes.containsKey(child.getId())) continue;
+            CategoryTreeVO childNode = buildNode(child, childrenByPid, nodes);
+            node.getChildren().add(childNode);
+            views += childNode.getViewCount();
+        }
+        node.setViewCount(views);
+        return node;
+    }
+
+    private void registerCategory(Category category){
+        putCategory(category);
+        refresh();
+    }
+
+    private void putCategory(Category category){
+        categories.put(category.getId(), category);
+        if(category.getName() != null) categoryIdByName.put(category.getName(), category.getId());
+    }
+
+    private Counter counter(long categoryId){
+        return counters.computeIfAbsent(categoryId, id -> new Counter());
+    }
+
+    private static class Counter {
+        //已发布文章数
+        final AtomicLong articles = new AtomicLong();
+        //已发布文章的浏览量
+        final AtomicLong views = new AtomicLong();
+    }
+
+    private record ArticleStat(long categoryId, boolean published, long views) {
+        static ArticleStat of(Article article, long views) {
+            return new ArticleStat(article.getCategoryId(),
+                    Objects.equals(article.getStatus(), 1) && Objects.equals(article.getIsDeleted(), 0), views);
+        }
+
+        /**
+         * 把这篇文章计入(sign=1)或移出(sign=-1)分类统计
+         */
+        void apply(Counter counter, int sign) {
+            if (!published) return;
+            counter.articles.addAndGet(sign);
+            counter.views.addAndGet(sign * views);
+        }
     }
 }
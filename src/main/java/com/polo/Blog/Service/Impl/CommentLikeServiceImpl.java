@@ -0,0 +1,273 @@
+package com.polo.Blog.Service.Impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.polo.Blog.Domain.Entity.Comment;
+import com.polo.Blog.Domain.Entity.CommentLike;
+import com.polo.Blog.Domain.Entity.User;
+import com.polo.Blog.Mapper.CommentLikeMapper;
+import com.polo.Blog.Mapper.CommentMapper;
+import com.polo.Blog.Service.AnalyticsService;
+import com.polo.Blog.Service.CommentLikeService;
+import com.polo.Blog.Service.TrendingService;
+import com.polo.Blog.Service.UserService;
+import com.polo.Blog.Utils.CacheStats;
+import com.polo.Blog.Utils.IdDictionary;
+import com.polo.Blog.Utils.UserContext;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 点赞只改内存：每条评论一个点赞用户位图做去重，一个 LongAdder 记未落库的增量
+ * 定时把累积的操作合并成 INSERT IGNORE / DELETE 批量语句，再按点赞记录重算涉及评论的 like_count，在一个事务里落库
+ */
+@Slf4j
+@Service
+public class CommentLikeServiceImpl extends ServiceImpl<CommentLikeMapper, CommentLike> implements CommentLikeService, CacheStats {
+    //多久没人点的评论从内存移除
+    private static final long IDLE_MILLIS = 30 * 60 * 1000L;
+    private static final int FLUSH_BATCH = 500;
+
+    @Autowired
+    private CommentMapper commentMapper;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TrendingService trendingService;
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    private final TransactionTemplate transactionTemplate;
+    //用户id -> 位图编号
+    private final IdDictionary userOrdinals = new IdDictionary();
+    private final Map<Long, LikeState> states = new ConcurrentHashMap<>();
+    //待落库的操作，同一用户对同一评论只保留最后一次(true 点赞 / false 取消)
+    private final Map<LikeKey, Boolean> pendingOps = new ConcurrentHashMap<>();
+    private volatile boolean lastFlushFailed;
+
+    public CommentLikeServiceImpl(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public String likeComment(Long commentId) {
+        return apply(commentId, true);
+    }
+
+    @Override
+    public String unlikeComment(Long commentId) {
+        return apply(commentId, false);
+    }
+
+    @Override
+    public long getPendingDelta(Long commentId) {
+        LikeState state = commentId == null ? null : states.get(commentId);
+        return state == null ? 0 : state.delta.sum();
+    }
+
+    @Override
+    public Set<Long> getLikedCommentIds(Long userId, Collection<Long> commentIds) {
+        Set<Long> liked = new HashSet<>();
+        if (userId == null || commentIds.isEmpty()) return liked;
+        int ordinal = userOrdinals.find(userId);
+        List<Long> notLoaded = new ArrayList<>();
+        for (Long commentId : commentIds) {
+            LikeState state = states.get(commentId);
+            if (state == null) {
+                notLoaded.add(commentId);
+            } else if (ordinal >= 0 && state.contains(ordinal)) {
+                liked.add(commentId);
+            }
+        }
+        //内存里没有的评论没有未落库的操作，直接查库
+        if (!notLoaded.isEmpty()) {
+            LambdaQueryWrapper<CommentLike> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(CommentLike::getCommentId)
+                    .eq(CommentLike::getUserId, userId)
+                    .in(CommentLike::getCommentId, notLoaded);
+            for (CommentLike like : this.list(wrapper)) {
+                liked.add(like.getCommentId());
+            }
+        }
+        return liked;
+    }
+
+    @Override
+    public String cacheName() {
+        return "comment_like";
+    }
+
+    @Override
+    public long cacheSize() {
+        return states.size();
+    }
+
+    /**
+     * 定时合并落库
+     */
+    @Scheduled(fixedDelayString = "${comment-like.flush-ms:5000}")
+    public synchronized void flush() {
+        Map<LikeKey, Boolean> drained = new HashMap<>();
+        for (Map.Entry<LikeKey, Boolean> entry : pendingOps.entrySet()) {
+            if (pendingOps.remove(entry.getKey(), entry.getValue())) {
+                drained.put(entry.getKey(), entry.getValue());
+            }
+        }
+        Map<Long, Long> deltas = new HashMap<>();
+        states.forEach((commentId, state) -> {
+            long delta = state.delta.sumThenReset();
+            if (delta != 0) deltas.put(commentId, delta);
+        });
+        if (drained.isEmpty() && deltas.isEmpty()) {
+            evictIdle();
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<CommentLike> inserts = new ArrayList<>();
+        List<CommentLike> deletes = new ArrayList<>();
+        drained.forEach((key, like) -> {
+            CommentLike row = new CommentLike(IdWorker.getId(), key.commentId(), key.userId(), now);
+            (like ? inserts : deletes).add(row);
+        });
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < inserts.size(); i += FLUSH_BATCH) {
+                    this.baseMapper.insertIgnoreBatch(inserts.subList(i, Math.min(i + FLUSH_BATCH, inserts.size())));
+                }
+                for (int i = 0; i < deletes.size(); i += FLUSH_BATCH) {
+                    this.baseMapper.deleteBatch(deletes.subList(i, Math.min(i + FLUSH_BATCH, deletes.size())));
+                }
+                //计数不按内存增量累加，按实际的点赞记录重算
+                Set<Long> touched = new LinkedHashSet<>(deltas.keySet());
+                drained.keySet().forEach(key -> touched.add(key.commentId()));
+                List<Long> ids = new ArrayList<>(touched);
+                for (int i = 0; i < ids.size(); i += FLUSH_BATCH) {
+                    commentMapper.recountLikes(ids.subList(i, Math.min(i + FLUSH_BATCH, ids.size())));
+                }
+            });
+            lastFlushFailed = false;
+        } catch (Exception e) {
+            //整批回滚了，放回去下次重试；期间的新操作优先
+            drained.forEach(pendingOps::putIfAbsent);
+            deltas.forEach((commentId, delta) -> {
+                LikeState state = states.get(commentId);
+                if (state != null) state.delta.add(delta);
+            });
+            lastFlushFailed = true;
+            log.warn("评论点赞落库失败，下次重试: {}", e.getMessage());
+            return;
+        }
+        evictIdle();
+    }
+
+    private String apply(Long commentId, boolean like) {
+        Long userId = currentUserId();
+        if (userId == null || commentId == null) return "错误操作";
+        int ordinal = userOrdinals.ordinal(userId);
+        long articleId;
+        while (true) {
+            LikeState state = states.get(commentId);
+            if (state == null) {
+                //第一次有人点：查一次评论和已有点赞用户
+                state = states.computeIfAbsent(commentId, this::load);
+                if (state == null) return "评论不存在";
+            }
+            synchronized (state) {
+                //刚好被清理掉了，重新加载
+                if (state.evicted) continue;
+                state.lastTouched = System.currentTimeMillis();
+                boolean changed = like ? state.members.checkedAdd(ordinal) : state.members.checkedRemove(ordinal);
+                if (!changed) return like ? "已经点过赞了" : "还没有点赞";
+                if (like) {
+                    state.delta.increment();
+                } else {
+                    state.delta.decrement();
+                }
+                pendingOps.put(new LikeKey(commentId, userId), like);
+                articleId = state.articleId;
+            }
+            break;
+        }
+        if (like) {
+            trendingService.recordLike(articleId);
+            analyticsService.record(articleId, AnalyticsService.Metric.LIKE);
+        }
+        return like ? "点赞成功" : "取消成功";
+    }
+
+    private LikeState load(Long commentId) {
+        LambdaQueryWrapper<Comment> commentWrapper = new LambdaQueryWrapper<>();
+        commentWrapper.select(Comment::getId, Comment::getArticleId, Comment::getIsDeleted).eq(Comment::getId, commentId);
+        Comment comment = commentMapper.selectOne(commentWrapper);
+        if (comment == null || !Objects.equals(comment.getIsDeleted(), 0)) return null;
+        LambdaQueryWrapper<CommentLike> likeWrapper = new LambdaQueryWrapper<>();
+        likeWrapper.select(CommentLike::getUserId).eq(CommentLike::getCommentId, commentId);
+        RoaringBitmap members = new RoaringBitmap();
+        for (CommentLike like : this.list(likeWrapper)) {
+            members.add(userOrdinals.ordinal(like.getUserId()));
+        }
+        members.runOptimize();
+        return new LikeState(comment.getArticleId(), members);
+    }
+
+    /**
+     * 清理长时间没人点、增量已落库的评论；上次落库失败时先不清，避免丢掉待重试的操作
+     */
+    private void evictIdle() {
+        if (lastFlushFailed) return;
+        long deadline = System.currentTimeMillis() - IDLE_MILLIS;
+        states.forEach((commentId, state) -> {
+            if (state.lastTouched >= deadline) return;
+            synchronized (state) {
+                if (state.lastTouched < deadline && state.delta.sum() == 0) {
+                    state.evicted = true;
+                    states.remove(commentId, state);
+                }
+            }
+        });
+    }
+
+    private Long currentUserId() {
+        UserContext.LoginUser loginUser = UserContext.get();
+        if (loginUser == null) return null;
+        if (loginUser.getUserId() != null) return loginUser.getUserId();
+        //旧 Token 没带用户id
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(User::getId).eq(User::getUsername, loginUser.getUsername());
+        User user = userService.getOne(wrapper);
+        return user == null ? null : user.getId();
+    }
+
+    private record LikeKey(long commentId, long userId) {
+    }
+
+    private static class LikeState {
+        final long articleId;
+        final RoaringBitmap members;
+        //未落库的点赞数增量
+        final LongAdder delta = new LongAdder();
+        volatile long lastTouched = System.currentTimeMillis();
+        boolean evicted;
+
+        LikeState(long articleId, RoaringBitmap members) {
+            this.articleId = articleId;
+            this.members = members;
+        }
+
+        synchronized boolean contains(int ordinal) {
+            return members.contains(ordinal);
+        }
+    }
+}
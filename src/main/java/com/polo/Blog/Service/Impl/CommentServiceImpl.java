@@ -0,0 +1,220 @@
+package com.polo.Blog.Service.Impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.polo.Blog.Domain.DTO.CommentDTO;
+import com.polo.Blog.Domain.Entity.Article;
+import com.polo.Blog.Domain.Entity.Comment;
+import com.polo.Blog.Domain.Entity.User;
+import com.polo.Blog.Domain.OV.CommentPageVO;
+import com.polo.Blog.Domain.OV.CommentVO;
+import com.polo.Blog.Mapper.CommentMapper;
+import com.polo.Blog.Service.AnalyticsService;
+import com.polo.Blog.Service.ArticleService;
+import com.polo.Blog.Service.CommentLikeService;
+import com.polo.Blog.Service.CommentService;
+import com.polo.Blog.Service.TrendingService;
+import com.polo.Blog.Service.UserService;
+import com.polo.Blog.Utils.UserContext;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 一页评论固定三次查询：根评论(游标分页) + 回复预览(root_id IN 批量) + 评论人(id IN 批量)
+ * 登录用户再加一次点赞状态查询(comment_id IN 批量)
+ */
+@Service
+public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> implements CommentService {
+    //根评论用 -1 表示
+    private static final long NO_ROOT = -1L;
+    private static final int MAX_PAGE_SIZE = 50;
+    //每条根评论在列表里带出的回复条数
+    private static final int REPLY_PREVIEW = 3;
+
+    @Autowired
+    private ArticleService articleService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TrendingService trendingService;
+    @Autowired
+    private AnalyticsService analyticsService;
+    @Autowired
+    private CommentLikeService commentLikeService;
+
+    @Override
+    public CommentPageVO getCommentPage(Long articleId, Long cursor, int pageSize){
+        int size = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        //雪花id随时间递增，按id倒序即最新在前，游标取上一页最后一条的id
+        LambdaQueryWrapper<Comment> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(Comment::getArticleId, articleId)
+                .eq(Comment::getRootId, NO_ROOT)
+                .eq(Comment::getIsDeleted, 0)
+                .lt(cursor != null, Comment::getId, cursor)
+                .orderByDesc(Comment::getId)
+                .last("LIMIT " + (size + 1));
+        List<Comment> roots = this.list(wrapper);
+        boolean hasMore = roots.size() > size;
+        if(hasMore) roots = roots.subList(0, size);
+        if(roots.isEmpty()){
+            return new CommentPageVO(new ArrayList<>(), null, false);
+        }
+        //整页根评论的回复一次查出
+        List<Long> rootIds = roots.stream().map(Comment::getId).collect(Collectors.toList());
+        List<Comment> replies = this.baseMapper.selectReplyPreview(rootIds, REPLY_PREVIEW);
+        Map<Long, User> userMap = loadUsers(roots, replies);
+
+        Map<Long, CommentVO> rootVOMap = new LinkedHashMap<>();
+        for(Comment root : roots){
+            rootVOMap.put(root.getId(), toVO(root, userMap));
+        }
+        for(Comment reply : replies){
+            CommentVO rootVO = rootVOMap.get(reply.getRootId());
+            if(rootVO == null) continue;
+            rootVO.getReplies().add(toVO(reply, userMap));
+            rootVO.setReplyTotal(reply.getReplyTotal() == null ? 0 : reply.getReplyTotal());
+        }
+        List<CommentVO> records = new ArrayList<>(rootVOMap.values());
+        List<CommentVO> all = new ArrayList<>(records);
+        records.forEach(root -> all.addAll(root.getReplies()));
+        applyLikes(all);
+        return new CommentPageVO(records, roots.get(roots.size() - 1).getId(), hasMore);
+    }
+
+    @Override
+    public CommentPageVO getReplyPage(Long rootId, Long cursor, int pageSize){
+        int size = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        //回复按时间正序
+        LambdaQueryWrapper<Comment> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(Comment::getRootId, rootId)
+                .eq(Comment::getIsDeleted, 0)
+                .gt(cursor != null, Comment::getId, cursor)
+                .orderByAsc(Comment::getId)
+                .last("LIMIT " + (size + 1));
+        List<Comment> replies = this.list(wrapper);
+        boolean hasMore = replies.size() > size;
+        if(hasMore) replies = replies.subList(0, size);
+        if(replies.isEmpty()){
+            return new CommentPageVO(new ArrayList<>(), null, false);
+        }
+        Map<Long, User> userMap = loadUsers(replies, Collections.emptyList());
+        List<CommentVO> records = replies.stream().map(reply -> toVO(reply, userMap)).collect(Collectors.toList());
+        applyLikes(records);
+        return new CommentPageVO(records, replies.get(replies.size() - 1).getId(), hasMore);
+    }
+
+    @Override
+    public String addComment(CommentDTO commentDTO){
+        if(commentDTO.getContent() == null || commentDTO.getContent().isBlank()) return "评论内容不能为空";
+        User user = currentUser();
+        if(user == null) return "错误操作";
+        Article article = articleService.getById(commentDTO.getArticleId());
+        if(article == null || !Objects.equals(article.getStatus(), 1) || !Objects.equals(article.getIsDeleted(), 0)) return "错误操作";
+        if(!Objects.equals(article.getIsComment(), 1)) return "该文章不允许评论";
+
+        Comment comment = new Comment();
+        comment.setArticleId(article.getId());
+        comment.setUserId(user.getId());
+        comment.setContent(commentDTO.getContent());
+        comment.setRootId(NO_ROOT);
+        comment.setToCommentId(NO_ROOT);
+        comment.setToUserId(NO_ROOT);
+        if(commentDTO.getToCommentId() != null){
+            //回复：挂到被回复评论所在的根评论下
+            Comment target = this.getById(commentDTO.getToCommentId());
+            if(target == null || !Objects.equals(target.getArticleId(), article.getId())) return "错误操作";
+            comment.setRootId(Objects.equals(target.getRootId(), NO_ROOT) ? target.getId() : target.getRootId());
+            comment.setToCommentId(target.getId());
+            comment.setToUserId(target.getUserId());
+        }
+        comment.setLikeCount(0);
+        comment.setCreateTime(LocalDateTime.now());
+        comment.setUpdateTime(LocalDateTime.now());
+        comment.setIsDeleted(0);
+        this.save(comment);
+        trendingService.recordComment(article.getId());
+        analyticsService.record(article.getId(), AnalyticsService.Metric.COMMENT);
+        return "评论成功";
+    }
+
+    @Override
+    public String deleteComment(Long id){
+        UserContext.LoginUser loginUser = UserContext.get();
+        Comment comment = this.getById(id);
+        if(comment == null) return "错误操作";
+        if(!Objects.equals(loginUser.getRoleKey(), "admin")){
+            //不是管理员只能删自己的评论
+            User user = currentUser();
+            if(user == null || !Objects.equals(comment.getUserId(), user.getId())) return "错误操作";
+        }
+        LambdaUpdateWrapper<Comment> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.eq(Comment::getId, id)
+                .set(Comment::getIsDeleted, 1)
+                .set(Comment::getUpdateTime, LocalDateTime.now());
+        this.update(wrapper);
+        return "删除成功";
+    }
+
+    /**
+     * 点赞数加上还没落库的增量，并标记当前用户点过赞的评论(一次查询)
+     */
+    private void applyLikes(List<CommentVO> comments){
+        for(CommentVO commentVO : comments){
+            int likeCount = commentVO.getLikeCount() == null ? 0 : commentVO.getLikeCount();
+            commentVO.setLikeCount((int) Math.max(likeCount + commentLikeService.getPendingDelta(commentVO.getId()), 0));
+        }
+        UserContext.LoginUser loginUser = UserContext.get();
+        if(loginUser == null || loginUser.getUserId() == null) return;
+        List<Long> ids = comments.stream().map(CommentVO::getId).collect(Collectors.toList());
+        Set<Long> liked = commentLikeService.getLikedCommentIds(loginUser.getUserId(), ids);
+        comments.forEach(commentVO -> commentVO.setLiked(liked.contains(commentVO.getId())));
+    }
+
+    private User currentUser(){
+        UserContext.LoginUser loginUser = UserContext.get();
+        LambdaQueryWrapper<User> userWrapper = new LambdaQueryWrapper<>();
+        userWrapper.eq(User::getUsername, loginUser.getUsername());
+        return userService.getOne(userWrapper);
+    }
+
+    /**
+     * 评论人和被回复人一次查出
+     */
+    private Map<Long, User> loadUsers(List<Comment> first, List<Comment> second){
+        Set<Long> userIds = new HashSet<>();
+        for(List<Comment> comments : List.of(first, second)){
+            for(Comment comment : comments){
+                userIds.add(comment.getUserId());
+                if(comment.getToUserId() != null && comment.getToUserId() != NO_ROOT) userIds.add(comment.getToUserId());
+            }
+        }
+        if(userIds.isEmpty()) return Collections.emptyMap();
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(User::getId, User::getUsername, User::getNickname, User::getAvatar)
+                .in(User::getId, userIds);
+        return userService.list(wrapper).stream().collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private CommentVO toVO(Comment comment, Map<Long, User> userMap){
+        CommentVO commentVO = new CommentVO();
+        BeanUtils.copyProperties(comment, commentVO, "replyTotal");
+        User user = userMap.get(comment.getUserId());
+        if(user != null){
+            commentVO.setUsername(user.getUsername());
+            commentVO.setNickname(user.getNickname());
+            commentVO.setAvatar(user.getAvatar());
+        }
+        User toUser = comment.getToUserId() == null ? null : userMap.get(comment.getToUserId());
+        if(toUser != null){
+            commentVO.setToNickname(toUser.getNickname());
+        }
+        return commentVO;
+    }
+}
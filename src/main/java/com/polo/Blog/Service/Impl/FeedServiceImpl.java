@@ -0,0 +1,345 @@
+package com.polo.Blog.Service.Impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.polo.Blog.Domain.Entity.Article;
+import com.polo.Blog.Domain.Entity.ArticleEvent;
+import com.polo.Blog.Domain.Entity.User;
+import com.polo.Blog.Domain.OV.ArticleVO;
+import com.polo.Blog.Mapper.ArticleMapper;
+import com.polo.Blog.Mapper.UserMapper;
+import com.polo.Blog.Service.ArticleEventService;
+import com.polo.Blog.Service.ArticleEventSubscriber;
+import com.polo.Blog.Service.FeedService;
+import com.polo.Blog.Utils.CacheStats;
+import com.polo.Blog.Utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 两个按(更新时间, id)倒序的跳表：全部文章(后台)和已发布未删除的文章(前台)，值是不含正文的摘要
+ * 读接口直接遍历跳表生成 VO；写入串行执行，先按旧的 key 移除再放入新的，浏览量单独用 AtomicLong 累加
+ */
+@Slf4j
+@Service
+public class FeedServiceImpl implements FeedService, ArticleEventSubscriber, CacheStats {
+    //按作者id批量查用户名，每批的个数
+    private static final int AUTHOR_BATCH = 1000;
+    //更新时间倒序(为空的排最后)，相同再按 id 倒序
+    private static final Comparator<FeedKey> ORDER = Comparator
+            .comparing(FeedKey::updateTime, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparingLong(FeedKey::id)
+            .reversed();
+
+    @Autowired
+    private ArticleMapper articleMapper;
+    @Autowired
+    private UserMapper userMapper;
+
+    //重建时整体替换，增量写入由 synchronized 串行
+    private volatile ConcurrentSkipListMap<FeedKey, Entry> all = new ConcurrentSkipListMap<>(ORDER);
+    private volatile ConcurrentSkipListMap<FeedKey, Entry> published = new ConcurrentSkipListMap<>(ORDER);
+    private volatile Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<Long, String> authorNames = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    //所有条目 Entry.digest() 的异或，写入时增量维护
+    private volatile long digest;
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("首页文章流加载失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 全量重建，正文不加载
+     */
+    public synchronized void reload() {
+        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(Article::getId, Article::getCategoryId, Article::getTitle, Article::getSummary, Article::getThumbnail,
+                Article::getIsTop, Article::getStatus, Article::getViewCount, Article::getVersion, Article::getCreateTime,
+                Article::getUpdateTime, Article::getCreateBy, Article::getIsDeleted, Article::getName,
+                Article::getLatitude, Article::getLongitude);
+        List<Article> articles = new ArrayList<>();
+        articleMapper.selectList(wrapper, context -> articles.add(context.getResultObject()));
+        Set<Long> authorIds = new HashSet<>();
+        articles.forEach(article -> authorIds.add(article.getCreateBy()));
+        loadAuthors(authorIds);
+
+        ConcurrentSkipListMap<FeedKey, Entry> newAll = new ConcurrentSkipListMap<>(ORDER);
+        ConcurrentSkipListMap<FeedKey, Entry> newPublished = new ConcurrentSkipListMap<>(ORDER);
+        Map<Long, Entry> newById = new ConcurrentHashMap<>();
+        long newDigest = 0;
+        for (Article article : articles) {
+            Entry entry = Entry.of(article, authorNames.get(article.getCreateBy()));
+            newAll.put(entry.key, entry);
+            if (entry.visible()) newPublished.put(entry.key, entry);
+            newById.put(entry.id, entry);
+            newDigest ^= entry.digest();
+        }
+        all = newAll;
+        published = newPublished;
+        byId = newById;
+        digest = newDigest;
+        loaded = true;
+        log.info("首页文章流加载完成，文章数: {}，已发布: {}", newAll.size(), newPublished.size());
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public List<ArticleVO> getPublicFeed() {
+        return slice(published);
+    }
+
+    @Override
+    public List<ArticleVO> getAdminFeed() {
+        return slice(all);
+    }
+
+    @Override
+    public String dataVersion() {
+        return loaded ? Long.toString(digest, 36) : null;
+    }
+
+    @Override
+    public void putArticle(Article article) {
+        if (article == null || article.getId() == null) return;
+        //实体之后可能还会被改，先取出需要的字段
+        Entry entry = Entry.of(article, authorName(article.getCreateBy()));
+        TransactionUtils.afterCommit(() -> put(entry));
+    }
+
+    @Override
+    public void syncState(Article article) {
+        if (article == null || article.getId() == null) return;
+        Long id = article.getId();
+        Integer status = article.getStatus();
+        Integer isDeleted = article.getIsDeleted();
+        Integer version = article.getVersion();
+        TransactionUtils.afterCommit(() -> replaceState(id, status, isDeleted, version));
+    }
+
+    @Override
+    public void onArticleEvents(List<ArticleEvent> events) {
+        for (ArticleEvent event : events) {
+            if (ArticleEventService.Type.STATE_CHANGED.name().equals(event.getEventType())) {
+                syncState(event.getArticle());
+            } else {
+                putArticle(event.getArticle());
+            }
+        }
+    }
+
+    @Override
+    public void recordView(Long articleId) {
+        if (articleId == null) return;
+        Entry entry = byId.get(articleId);
+        if (entry != null) entry.views.incrementAndGet();
+    }
+
+    @Override
+    public String cacheName() {
+        return "home_feed";
+    }
+
+    @Override
+    public long cacheSize() {
+        return byId.size();
+    }
+
+    private synchronized void put(Entry entry) {
+        Entry old = byId.get(entry.id);
+        //快照比手里的旧(晚到的事件)，不覆盖
+        if (old != null && old.version != null && entry.version != null && old.version > entry.version) return;
+        if (old != null) {
+            all.remove(old.key);
+            published.remove(old.key);
+            //浏览量以内存为准，传进来的实体可能是旧值
+            entry = entry.withViews(old.views);
+            digest ^= old.digest();
+        }
+        digest ^= entry.digest();
+        byId.put(entry.id, entry);
+        all.put(entry.key, entry);
+        if (entry.visible()) published.put(entry.key, entry);
+    }
+
+    private synchronized void replaceState(Long id, Integer status, Integer isDeleted, Integer version) {
+        Entry old = byId.get(id);
+        //重复投递时状态已经是新的，不再重复加版本号
+        if (old == null || (Objects.equals(old.status, status) && Objects.equals(old.isDeleted, isDeleted))) return;
+        //只改状态列时更新时间不变，位置不动；数据库里版本号同时加一，事件带了库里的版本号就用它
+        Entry entry = old.withState(status, isDeleted, version);
+        digest ^= old.digest() ^ entry.digest();
+        byId.put(id, entry);
+        all.put(entry.key, entry);
+        if (entry.visible()) {
+            published.put(entry.key, entry);
+        } else {
+            published.remove(entry.key);
+        }
+    }
+
+    private static List<ArticleVO> slice(ConcurrentSkipListMap<FeedKey, Entry> feed) {
+        List<ArticleVO> articleVOList = new ArrayList<>(feed.size());
+        for (Entry entry : feed.values()) {
+            articleVOList.add(entry.toVO());
+        }
+        return articleVOList;
+    }
+
+    private String authorName(long userId) {
+        String name = authorNames.get(userId);
+        if (name == null) {
+            loadAuthors(Set.of(userId));
+            name = authorNames.get(userId);
+        }
+        return name;
+    }
+
+    private void loadAuthors(Collection<Long> userIds) {
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += AUTHOR_BATCH) {
+            LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(User::getId, User::getUsername)
+                    .in(User::getId, ids.subList(from, Math.min(from + AUTHOR_BATCH, ids.size())));
+            for (User user : userMapper.selectList(wrapper)) {
+                if (user.getUsername() != null) authorNames.put(user.getId(), user.getUsername());
+            }
+        }
+    }
+
+    private record FeedKey(LocalDateTime updateTime, long id) {
+    }
+
+    /**
+     * 列表展示用的文章摘要，除浏览量外不可变
+     */
+    private static final class Entry {
+        final FeedKey key;
+        final long id;
+        final long categoryId;
+        final String title;
+        final String summary;
+        final String thumbnail;
+        final Integer isTop;
+        final Integer status;
+        final Integer isDeleted;
+        final Integer version;
+        final LocalDateTime createTime;
+        final long createBy;
+        final String auth;
+        final String name;
+        final Double latitude;
+        final Double longitude;
+        final AtomicLong views;
+
+        private Entry(Entry source, Integer status, Integer isDeleted, Integer version, AtomicLong views) {
+            this.key = source.key;
+            this.id = source.id;
+            this.categoryId = source.categoryId;
+            this.title = source.title;
+            this.summary = source.summary;
+            this.thumbnail = source.thumbnail;
+            this.isTop = source.isTop;
+            this.status = status;
+            this.isDeleted = isDeleted;
+            this.version = version;
+            this.createTime = source.createTime;
+            this.createBy = source.createBy;
+            this.auth = source.auth;
+            this.name = source.name;
+            this.latitude = source.latitude;
+            this.longitude = source.longitude;
+            this.views = views;
+        }
+
+        private Entry(Article article, String auth) {
+            this.key = new FeedKey(article.getUpdateTime(), article.getId());
+            this.id = article.getId();
+            this.categoryId = article.getCategoryId();
+            this.title = article.getTitle();
+            this.summary = article.getSummary();
+            this.thumbnail = article.getThumbnail();
+            this.isTop = article.getIsTop();
+            this.status = article.getStatus();
+            this.isDeleted = article.getIsDeleted();
+            //新插入的实体没有版本号，数据库默认 0
+            this.version = article.getVersion() == null ? 0 : article.getVersion();
+            this.createTime = article.getCreateTime();
+            this.createBy = article.getCreateBy();
+            this.auth = auth;
+            this.name = article.getName();
+            this.latitude = article.getLatitude();
+            this.longitude = article.getLongitude();
+            this.views = new AtomicLong(article.getViewCount());
+        }
+
+        static Entry of(Article article, String auth) {
+            return new Entry(article, auth);
+        }
+
+        Entry withViews(AtomicLong views) {
+            return new Entry(this, status, isDeleted, version, views);
+        }
+
+        Entry withState(Integer status, Integer isDeleted, Integer newVersion) {
+            if (newVersion == null) newVersion = version == null ? null : version + 1;
+            return new Entry(this, status, isDeleted, newVersion, views);
+        }
+
+        /**
+         * (id, 版本号) 打散成 64 位，各节点同一篇文章同一版本得到同一个值
+         */
+        long digest() {
+            long h = id * 0x9E3779B97F4A7C15L + (version == null ? 0 : version);
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb53fe1a4a2b5L;
+            h ^= h >>> 33;
+            return h;
+        }
+
+        boolean visible() {
+            return Objects.equals(status, 1) && Objects.equals(isDeleted, 0);
+        }
+
+        ArticleVO toVO() {
+            ArticleVO articleVO = new ArticleVO();
+            articleVO.setId(id);
+            articleVO.setCategoryId(categoryId);
+            articleVO.setTitle(title);
+            articleVO.setSummary(summary);
+            articleVO.setThumbnail(thumbnail);
+            articleVO.setIsTop(isTop);
+            articleVO.setStatus(status);
+            articleVO.setViewCount(views.get());
+            articleVO.setCreateTime(createTime);
+            articleVO.setUpdateTime(key.updateTime());
+            articleVO.setCreateBy(createBy);
+            articleVO.setAuth(auth);
+            articleVO.setIsDeleted(isDeleted);
+            articleVO.setName(name);
+            articleVO.setLatitude(latitude);
+            articleVO.setLongitude(longitude);
+            articleVO.setVersion(version);
+            return articleVO;
+        }
+    }
+}
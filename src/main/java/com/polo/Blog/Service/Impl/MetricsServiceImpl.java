@@ -0,0 +1,104 @@
+package com.polo.Blog.Service.Impl;
+
+import com.polo.Blog.Config.RoutingDataSource;
+import com.polo.Blog.Interceptor.RateLimitInterceptor;
+import com.polo.Blog.Interceptor.RequestMetricsFilter;
+import com.polo.Blog.Interceptor.SqlStatsInterceptor;
+import com.polo.Blog.Runner.WarmUpRunner;
+import com.polo.Blog.Service.MetricsService;
+import com.polo.Blog.Utils.CacheStats;
+import com.polo.Blog.Utils.PrometheusWriter;
+import com.polo.Blog.Utils.SingleFlight;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class MetricsServiceImpl implements MetricsService {
+    @Autowired
+    private RequestMetricsFilter requestMetricsFilter;
+    @Autowired
+    private SqlStatsInterceptor sqlStatsInterceptor;
+    @Autowired
+    private RoutingDataSource routingDataSource;
+    @Autowired
+    private RateLimitInterceptor rateLimitInterceptor;
+    @Autowired
+    private List<CacheStats> caches;
+    @Autowired
+    private List<SingleFlight> singleFlights;
+    @Autowired
+    private WarmUpRunner warmUpRunner;
+    @Autowired
+    private ArticleEventServiceImpl articleEventService;
+    @Autowired
+    private CacheInvalidationServiceImpl cacheInvalidationService;
+
+    @Override
+    public String scrape() {
+        PrometheusWriter writer = new PrometheusWriter();
+        requestMetricsFilter.exportTo(writer);
+        sqlStatsInterceptor.exportTo(writer);
+        rateLimitInterceptor.exportTo(writer);
+        exportPools(writer);
+        exportCaches(writer);
+        exportSingleFlights(writer);
+        warmUpRunner.exportTo(writer);
+        articleEventService.exportTo(writer);
+        cacheInvalidationService.exportTo(writer);
+        return writer.toString();
+    }
+
+    /**
+     * 主库和各从库连接池，label 为 primary / replica-N
+     */
+    private void exportPools(PrometheusWriter writer) {
+        List<Map.Entry<String, HikariPoolMXBean>> pools = new ArrayList<>();
+        for (Map.Entry<String, HikariDataSource> entry : routingDataSource.getPools().entrySet()) {
+            //连接池第一次取连接时才创建
+            HikariPoolMXBean pool = entry.getValue().getHikariPoolMXBean();
+            if (pool != null) pools.add(Map.entry(entry.getKey(), pool));
+        }
+        if (pools.isEmpty()) return;
+        writer.type("hikari_connections_active", "gauge", "Connections in use");
+        pools.forEach(pool -> writer.sample("hikari_connections_active", pool.getValue().getActiveConnections(), "pool", pool.getKey()));
+        writer.type("hikari_connections_idle", "gauge", "Idle connections");
+        pools.forEach(pool -> writer.sample("hikari_connections_idle", pool.getValue().getIdleConnections(), "pool", pool.getKey()));
+        writer.type("hikari_connections", "gauge", "Total connections");
+        pools.forEach(pool -> writer.sample("hikari_connections", pool.getValue().getTotalConnections(), "pool", pool.getKey()));
+        writer.type("hikari_connections_pending", "gauge", "Threads waiting for a connection");
+        pools.forEach(pool -> writer.sample("hikari_connections_pending", pool.getValue().getThreadsAwaitingConnection(), "pool", pool.getKey()));
+    }
+
+    /**
+     * executed 为实际加载次数，coalesced 为等待同 key 结果、没有查库的次数
+     */
+    private void exportSingleFlights(PrometheusWriter writer) {
+        writer.type("single_flight_calls_total", "counter", "Concurrent identical loads by outcome");
+        for (SingleFlight flight : singleFlights) {
+            writer.sample("single_flight_calls_total", flight.getExecuted(), "name", flight.getName(), "result", "executed");
+            writer.sample("single_flight_calls_total", flight.getCoalesced(), "name", flight.getName(), "result", "coalesced");
+        }
+        writer.type("single_flight_in_flight", "gauge", "Loads currently running");
+        for (SingleFlight flight : singleFlights) {
+            writer.sample("single_flight_in_flight", flight.getInFlight(), "name", flight.getName());
+        }
+    }
+
+    private void exportCaches(PrometheusWriter writer) {
+        writer.type("cache_size", "gauge", "Entries held by in-memory caches and indexes");
+        for (CacheStats cache : caches) {
+            writer.sample("cache_size", cache.cacheSize(), "cache", cache.cacheName());
+        }
+        writer.type("cache_gets_total", "counter", "Cache lookups by result");
+        for (CacheStats cache : caches) {
+            if (cache.cacheHits() >= 0) writer.sample("cache_gets_total", cache.cacheHits(), "cache", cache.cacheName(), "result", "hit");
+            if (cache.cacheMisses() >= 0) writer.sample("cache_gets_total", cache.cacheMisses(), "cache", cache.cacheName(), "result", "miss");
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.polo.Blog.Service.Impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.polo.Blog.Domain.Entity.Menu;
+import com.polo.Blog.Domain.Entity.Role;
+import com.polo.Blog.Domain.Entity.RoleMenu;
+import com.polo.Blog.Domain.OV.MenuVO;
+import com.polo.Blog.Mapper.MenuMapper;
+import com.polo.Blog.Mapper.RoleMapper;
+import com.polo.Blog.Mapper.RoleMenuMapper;
+import com.polo.Blog.Service.CacheInvalidationListener;
+import com.polo.Blog.Service.CacheInvalidationService;
+import com.polo.Blog.Service.PermissionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 启动时把 角色 -> 菜单 -> 权限标识 展开成每个角色一个 BitSet，同时按角色算好菜单列表
+ * 权限标识到位下标的映射只增不改，拦截器可以缓存接口对应的位下标，校验只是一次 BitSet.get
+ */
+@Slf4j
+@Service
+public class PermissionServiceImpl implements PermissionService, CacheInvalidationListener {
+    //超级管理员，不看配置直接放行
+    private static final String ADMIN = "admin";
+    private static final long ROOT_MENU = 0L;
+
+    @Autowired
+    private RoleMapper roleMapper;
+    @Autowired
+    private MenuMapper menuMapper;
+    @Autowired
+    private RoleMenuMapper roleMenuMapper;
+
+    private final Map<String, Integer> bits = new ConcurrentHashMap<>();
+    private final List<String> bitNames = Collections.synchronizedList(new ArrayList<>());
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of(), List.of());
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("权限缓存加载失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void reload() {
+        LambdaQueryWrapper<Role> roleWrapper = new LambdaQueryWrapper<>();
+        roleWrapper.eq(Role::getStatus, "0").eq(Role::getIsDeleted, 0);
+        List<Role> roles = roleMapper.selectList(roleWrapper);
+        LambdaQueryWrapper<Menu> menuWrapper = new LambdaQueryWrapper<>();
+        menuWrapper.eq(Menu::getStatus, "0");
+        Map<Long, Menu> menus = new LinkedHashMap<>();
+        for (Menu menu : menuMapper.selectList(menuWrapper)) {
+            menus.put(menu.getId(), menu);
+        }
+        Map<Long, List<Long>> menuIdsByRole = new HashMap<>();
+        for (RoleMenu roleMenu : roleMenuMapper.selectList(new LambdaQueryWrapper<>())) {
+            menuIdsByRole.computeIfAbsent(roleMenu.getRoleId(), id -> new ArrayList<>()).add(roleMenu.getMenuId());
+        }
+
+        Map<String, BitSet> roleBits = new HashMap<>();
+        Map<String, List<MenuVO>> roleMenus = new HashMap<>();
+        for (Role role : roles) {
+            boolean admin = ADMIN.equals(role.getRoleKey());
+            Collection<Long> menuIds = admin ? menus.keySet() : menuIdsByRole.getOrDefault(role.getId(), List.of());
+            BitSet granted = new BitSet();
+            Set<Long> visible = new HashSet<>();
+            for (Long menuId : menuIds) {
+                Menu menu = menus.get(menuId);
+                if (menu == null) continue;
+                for (String perms : splitPerms(menu.getPerms())) {
+                    granted.set(permissionBit(perms));
+                }
+                //只给了子菜单时补上上级目录，否则前端挂不上
+                Menu current = menu;
+                while (current != null && visible.add(current.getId())) {
+                    current = menus.get(current.getParentId());
+                }
+            }
+            roleBits.put(role.getRoleKey(), granted);
+            roleMenus.put(role.getRoleKey(), buildMenus(menus, visible));
+        }
+        snapshot = new Snapshot(roleBits, roleMenus, buildMenus(menus, menus.keySet()));
+        log.info("权限缓存加载完成，角色数: {}，菜单数: {}，权限标识数: {}", roles.size(), menus.size(), bits.size());
+    }
+
+    @Override
+    public CacheInvalidationService.Region region() {
+        return CacheInvalidationService.Region.ROLE;
+    }
+
+    @Override
+    public void onInvalidate(Set<String> keys) {
+        //角色和菜单总是整体重新加载
+        reload();
+    }
+
+    @Override
+    public int permissionBit(String perms) {
+        Integer bit = bits.get(perms);
+        if (bit != null) return bit;
+        synchronized (bitNames) {
+            return bits.computeIfAbsent(perms, key -> {
+                bitNames.add(key);
+                return bitNames.size() - 1;
+            });
+        }
+    }
+
+    @Override
+    public boolean hasPermission(String roleKey, int bit) {
+        if (roleKey == null) return false;
+        if (ADMIN.equals(roleKey)) return true;
+        BitSet granted = snapshot.roleBits.get(roleKey);
+        return granted != null && granted.get(bit);
+    }
+
+    @Override
+    public Set<String> getPermissions(String roleKey) {
+        if (ADMIN.equals(roleKey)) {
+            synchronized (bitNames) {
+                return new HashSet<>(bitNames);
+            }
+        }
+        Set<String> permissions = new HashSet<>();
+        BitSet granted = roleKey == null ? null : snapshot.roleBits.get(roleKey);
+        if (granted == null) return permissions;
+        synchronized (bitNames) {
+            granted.stream().forEach(bit -> permissions.add(bitNames.get(bit)));
+        }
+        return permissions;
+    }
+
+    @Override
+    public List<MenuVO> getMenus(String roleKey) {
+        Snapshot current = snapshot;
+        if (ADMIN.equals(roleKey)) return current.allMenus;
+        return roleKey == null ? List.of() : current.roleMenus.getOrDefault(roleKey, List.of());
+    }
+
+    /**
+     * 按 父菜单, order_num 排好的扁平列表，按钮不返回
+     */
+    private List<MenuVO> buildMenus(Map<Long, Menu> menus, Collection<Long> visible) {
+        List<Menu> selected = new ArrayList<>();
+        for (Long menuId : visible) {
+            Menu menu = menus.get(menuId);
+            if (menu != null && !"F".equals(menu.getMenuType())) selected.add(menu);
+        }
+        selected.sort(Comparator.comparing((Menu menu) -> menu.getParentId() == null ? ROOT_MENU : menu.getParentId())
+                .thenComparing(menu -> menu.getOrderNum() == null ? 0 : menu.getOrderNum())
+                .thenComparing(Menu::getId));
+        Map<Long, String> firstChildPath = new HashMap<>();
+        for (Menu menu : selected) {
+            if (menu.getParentId() != null) firstChildPath.putIfAbsent(menu.getParentId(), menu.getPath());
+        }
+        List<MenuVO> result = new ArrayList<>(selected.size());
+        for (Menu menu : selected) {
+            Long parentId = menu.getParentId() == null || menu.getParentId() == ROOT_MENU ? null : menu.getParentId();
+            String redirect = "M".equals(menu.getMenuType()) ? firstChildPath.get(menu.getId()) : null;
+            result.add(new MenuVO(menu.getId(), parentId, menu.getMenuName(), menu.getIcon(), menu.getPath(), menu.getComponent(), redirect));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static List<String> splitPerms(String perms) {
+        if (perms == null || perms.isBlank()) return List.of();
+        List<String> result = new ArrayList<>();
+        for (String item : perms.split(",")) {
+            if (!item.isBlank()) result.add(item.trim());
+        }
+        return result;
+    }
+
+    private record Snapshot(Map<String, BitSet> roleBits, Map<String, List<MenuVO>> roleMenus, List<MenuVO> allMenus) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.polo.Blog.Service.Impl;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.polo.Blog.Domain.OV.OnlineUserVO;
+import com.polo.Blog.Service.PresenceService;
+import com.polo.Blog.Utils.CacheStats;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 每个在线用户一条会话(登录时间、IP、最后活跃时间)，请求线程只读写 ConcurrentHashMap
+ * 同一用户心跳间隔内的请求不刷新最后活跃时间；新会话和 IP 变化记为待写，定时批量更新 login_date / login_ip
+ */
+@Slf4j
+@Service
+public class PresenceServiceImpl implements PresenceService, CacheStats {
+    private static final int FLUSH_BATCH = 500;
+    private static final String UPDATE_LOGIN = "UPDATE sys_user SET login_date = ?, login_ip = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Value("${presence.ttl-ms:300000}")
+    private long ttlMs;
+    @Value("${presence.heartbeat-ms:30000}")
+    private long heartbeatMs;
+
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    //等待写库的会话，同一用户只保留最新一条
+    private final Map<Long, Session> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void login(Long userId, String username, String ip) {
+        if (userId == null) return;
+        long now = System.currentTimeMillis();
+        Session session = new Session(userId, username, ip, now, now);
+        sessions.put(userId, session);
+        pending.put(userId, session);
+    }
+
+    @Override
+    public void touch(Long userId, String username, String ip) {
+        if (userId == null) return;
+        long now = System.currentTimeMillis();
+        Session current = sessions.get(userId);
+        //心跳合并：间隔内同一 IP 的请求不做任何写操作
+        if (current != null && now - current.lastSeen < heartbeatMs && Objects.equals(current.ip, ip)) return;
+        sessions.compute(userId, (id, old) -> {
+            if (old == null || now - old.lastSeen > ttlMs) {
+                //过期后带着旧 Token 回来算一次新登录
+                Session session = new Session(id, username, ip, now, now);
+                pending.put(id, session);
+                return session;
+            }
+            if (!Objects.equals(old.ip, ip)) {
+                Session session = new Session(id, old.username, ip, old.loginAt, now);
+                pending.put(id, session);
+                return session;
+            }
+            old.lastSeen = now;
+            return old;
+        });
+    }
+
+    @Override
+    public void logout(Long userId) {
+        if (userId == null) return;
+        sessions.remove(userId);
+    }
+
+    @Override
+    public boolean isOnline(Long userId) {
+        if (userId == null) return false;
+        Session session = sessions.get(userId);
+        return session != null && alive(session, System.currentTimeMillis());
+    }
+
+    @Override
+    public long onlineCount() {
+        long now = System.currentTimeMillis();
+        return sessions.values().stream().filter(session -> alive(session, now)).count();
+    }
+
+    @Override
+    public IPage<OnlineUserVO> onlineUsers(int pageNum, int pageSize) {
+        int page = Math.max(pageNum, 1);
+        int size = Math.max(pageSize, 1);
+        long now = System.currentTimeMillis();
+        List<Session> online = new ArrayList<>();
+        for (Session session : sessions.values()) {
+            if (alive(session, now)) online.add(session);
+        }
+        online.sort(Comparator.comparingLong((Session session) -> session.lastSeen).reversed()
+                .thenComparingLong(session -> session.userId));
+        int from = (int) Math.min((long) (page - 1) * size, online.size());
+        int to = Math.min(from + size, online.size());
+        List<OnlineUserVO> records = new ArrayList<>(to - from);
+        for (Session session : online.subList(from, to)) {
+            records.add(new OnlineUserVO(session.userId, session.username, session.ip,
+                    toDateTime(session.loginAt), toDateTime(session.lastSeen)));
+        }
+        Page<OnlineUserVO> result = new Page<>(page, size, online.size());
+        return result.setRecords(records);
+    }
+
+    @Override
+    public String cacheName() {
+        return "presence";
+    }
+
+    @Override
+    public long cacheSize() {
+        return sessions.size();
+    }
+
+    /**
+     * 定时清掉过期会话，并把新会话的登录时间和 IP 批量写库
+     */
+    @Scheduled(fixedDelayString = "${presence.flush-ms:60000}")
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> !alive(session, now));
+        if (pending.isEmpty()) return;
+
+        List<Session> batch = new ArrayList<>();
+        for (Long userId : new ArrayList<>(pending.keySet())) {
+            Session session = pending.remove(userId);
+            if (session != null) batch.add(session);
+        }
+        int written = 0;
+        try {
+            while (written < batch.size()) {
+                int end = Math.min(written + FLUSH_BATCH, batch.size());
+                List<Object[]> args = new ArrayList<>(end - written);
+                for (Session session : batch.subList(written, end)) {
+                    args.add(new Object[]{new Timestamp(session.loginAt), session.ip, session.userId});
+                }
+                jdbcTemplate.batchUpdate(UPDATE_LOGIN, args);
+                written = end;
+            }
+        } catch (Exception e) {
+            //没写进去的放回去，期间有更新的以新的为准
+            for (Session session : batch.subList(written, batch.size())) {
+                pending.putIfAbsent(session.userId, session);
+            }
+            log.warn("登录记录写入失败，{} 条下次重试: {}", batch.size() - written, e.getMessage());
+        }
+    }
+
+    /**
+     * 停机前把还没写库的登录记录写进去
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private boolean alive(Session session, long now) {
+        return now - session.lastSeen <= ttlMs;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static class Session {
+        final Long userId;
+        final String username;
+        final String ip;
+        final long loginAt;
+        volatile long lastSeen;
+
+        Session(Long userId, String username, String ip, long loginAt, long lastSeen) {
+            this.userId = userId;
+            this.username = username;
+            this.ip = ip;
+            this.loginAt = loginAt;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.polo.Blog.Service.Impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polo.Blog.Domain.Entity.ArticleEvent;
+import com.polo.Blog.Service.ArticleEventSubscriber;
+import com.polo.Blog.Service.ResponseCacheService;
+import com.polo.Blog.Utils.CacheStats;
+import com.polo.Blog.Utils.CachedResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 热点接口的响应按 分区:键 缓存序列化后的字节(和 gzip 字节)
+ * 每个分区一个代数，写入事件把代数加一并清掉该分区；生成期间代数变了的结果不入缓存，避免把旧数据放回去
+ * 另有短 TTL 兜底浏览量这类不发事件的变化
+ */
+@Service
+public class ResponseCacheServiceImpl implements ResponseCacheService, ArticleEventSubscriber, CacheStats {
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Value("${response-cache.ttl-ms:5000}")
+    private long ttlMillis;
+    @Value("${response-cache.max-entries:256}")
+    private int maxEntries;
+    @Value("${response-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private final Map<Region, AtomicLong> generations = new EnumMap<>(Region.class);
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResponseCacheServiceImpl() {
+        for (Region region : Region.values()) generations.put(region, new AtomicLong());
+    }
+
+    @Override
+    public CachedResponse get(Region region, String key, Supplier<?> loader) {
+        String fullKey = region.name() + ':' + key;
+        AtomicLong generation = generations.get(region);
+        long current = generation.get();
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(fullKey);
+        if (entry != null && entry.generation == current && entry.expiresAt > now) {
+            hits.increment();
+            return entry.response;
+        }
+        misses.increment();
+        CachedResponse response = serialize(loader.get());
+        //分页参数由客户端决定，条目数到上限后只更新已有的键
+        if (generation.get() == current && (entries.size() < maxEntries || entries.containsKey(fullKey))) {
+            entries.put(fullKey, new Entry(region, current, now + ttlMillis, response));
+        }
+        return response;
+    }
+
+    @Override
+    public void invalidate(Region region) {
+        generations.get(region).incrementAndGet();
+        entries.values().removeIf(entry -> entry.region == region);
+    }
+
+    @Override
+    public void onArticleEvents(List<ArticleEvent> events) {
+        //一批事件只失效一次
+        invalidate(Region.ARTICLE);
+    }
+
+    @Override
+    public int phase() {
+        //其他订阅者更新完内存数据再失效，避免重新生成的响应读到旧数据
+        return 1;
+    }
+
+    @Override
+    public String cacheName() {
+        return "response";
+    }
+
+    @Override
+    public long cacheSize() {
+        return entries.size();
+    }
+
+    @Override
+    public long cacheHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long cacheMisses() {
+        return misses.sum();
+    }
+
+    private CachedResponse serialize(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            return new CachedResponse(json, json.length >= gzipMinBytes ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("响应序列化失败", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private record Entry(Region region, long generation, long expiresAt, CachedResponse response) {
+    }
+}
@@ -1,11 +1,30 @@
 package com.polo.Blog.Service.Impl;
 
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.polo.Blog.Annotation.CounterWrite;
 import com.polo.Blog.Domain.Entity.SearchHistory;
 import com.polo.Blog.Mapper.SearchHistoryMapper;
 import com.polo.Blog.Service.SearchHistoryService;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 public class SearchHistoryServiceImpl extends ServiceImpl<SearchHistoryMapper, SearchHistory> implements SearchHistoryService {
+
+    @CounterWrite
+    @Override
+    public void recordSearch(String keyword) {
+        if (keyword == null || keyword.isEmpty()) return;
+        //先按关键词原地加一，没有命中再插入新记录
+        LambdaUpdateWrapper<SearchHistory> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(SearchHistory::getKeyword, keyword).setSql("search_times = search_times + 1");
+        if (this.update(updateWrapper)) return;
+        SearchHistory searchHistory = new SearchHistory();
+        searchHistory.setKeyword(keyword);
+        searchHistory.setCreateTime(LocalDateTime.now());
+        searchHistory.setSearchTimes(1);
+        this.save(searchHistory);
+    }
 }
@@ -0,0 +1,288 @@
+package com.polo.Blog.Service.Impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.polo.Blog.Domain.Entity.ArticleTag;
+import com.polo.Blog.Domain.Entity.ArticleTagRelation;
+import com.polo.Blog.Mapper.ArticleTagMapper;
+import com.polo.Blog.Mapper.ArticleTagRelationMapper;
+import com.polo.Blog.Service.CacheInvalidationListener;
+import com.polo.Blog.Service.CacheInvalidationService;
+import com.polo.Blog.Service.TagIndexService;
+import com.polo.Blog.Utils.CacheStats;
+import com.polo.Blog.Utils.IdDictionary;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 启动时从 landmark_tag / landmark_article_tag 加载，每个标签一个文章位图
+ * 文章id先映射成连续编号再放进位图，查询结果再还原成文章id
+ * 标签名字典按小写查找，和库里 name 列不区分大小写的比较一致
+ * 其他节点改了文章标签时经 TAG 分区失效，按库里的关联重新加载那几篇文章
+ */
+@Slf4j
+@Service
+public class TagIndexServiceImpl implements TagIndexService, CacheInvalidationListener, CacheStats {
+
+    @Autowired
+    private ArticleTagMapper articleTagMapper;
+    @Autowired
+    private ArticleTagRelationMapper articleTagRelationMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IdDictionary articleOrdinals = new IdDictionary();
+    //以下均由 lock 保护，tagIdByName 的键是 key(标签名)
+    private final Map<String, Long> tagIdByName = new HashMap<>();
+    private final Map<Long, String> tagNameById = new HashMap<>();
+    private final Map<Long, RoaringBitmap> postings = new HashMap<>();
+    private final Map<Long, Set<Long>> articleTags = new HashMap<>();
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("标签索引加载失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 全量重建索引
+     */
+    public void reload() {
+        Map<String, Long> idByName = new HashMap<>();
+        Map<Long, String> nameById = new HashMap<>();
+        LambdaQueryWrapper<ArticleTag> tagWrapper = new LambdaQueryWrapper<>();
+        tagWrapper.select(ArticleTag::getId, ArticleTag::getName);
+        for (ArticleTag tag : articleTagMapper.selectList(tagWrapper)) {
+            idByName.putIfAbsent(key(tag.getName()), tag.getId());
+            nameById.put(tag.getId(), tag.getName());
+        }
+        Map<Long, RoaringBitmap> newPostings = new HashMap<>();
+        Map<Long, Set<Long>> newArticleTags = new HashMap<>();
+        articleTagRelationMapper.selectList(new LambdaQueryWrapper<>(), context -> {
+            ArticleTagRelation relation = context.getResultObject();
+            if (!nameById.containsKey(relation.getTagId())) return;
+            newPostings.computeIfAbsent(relation.getTagId(), id -> new RoaringBitmap())
+                    .add(articleOrdinals.ordinal(relation.getArticleId()));
+            newArticleTags.computeIfAbsent(relation.getArticleId(), id -> new HashSet<>()).add(relation.getTagId());
+        });
+        newPostings.values().forEach(RoaringBitmap::runOptimize);
+
+        lock.writeLock().lock();
+        try {
+            tagIdByName.clear();
+            tagIdByName.putAll(idByName);
+            tagNameById.clear();
+            tagNameById.putAll(nameById);
+            postings.clear();
+            postings.putAll(newPostings);
+            articleTags.clear();
+            articleTags.putAll(newArticleTags);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("标签索引加载完成，标签数: {}，文章数: {}", nameById.size(), newArticleTags.size());
+    }
+
+    @Override
+    public List<Long> queryArticleIds(Collection<String> tags, boolean matchAll, Collection<String> excludeTags) {
+        if (tags == null || tags.isEmpty()) return new ArrayList<>();
+        RoaringBitmap result;
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> included = new ArrayList<>();
+            for (String tag : tags) {
+                RoaringBitmap posting = posting(tag);
+                if (posting == null) {
+                    //AND 时有一个标签不存在就不可能命中
+                    if (matchAll) return new ArrayList<>();
+                    continue;
+                }
+                included.add(posting);
+            }
+            if (included.isEmpty()) return new ArrayList<>();
+            if (matchAll) {
+                //从最小的位图开始交，中间结果最小
+                included.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+                result = included.get(0).clone();
+                for (int i = 1; i < included.size() && !result.isEmpty(); i++) {
+                    result.and(included.get(i));
+                }
+            } else {
+                result = RoaringBitmap.or(included.iterator());
+            }
+            if (excludeTags != null) {
+                for (String tag : excludeTags) {
+                    RoaringBitmap posting = posting(tag);
+                    if (posting != null) result.andNot(posting);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> articleIds = new ArrayList<>(result.getCardinality());
+        result.forEach((int ordinal) -> articleIds.add(articleOrdinals.id(ordinal)));
+        return articleIds;
+    }
+
+    @Override
+    public Set<Long> getTagIds(Long articleId) {
+        lock.readLock().lock();
+        try {
+            Set<Long> tagIds = articleTags.get(articleId);
+            return tagIds == null ? new HashSet<>() : new HashSet<>(tagIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> getTagNames(Long articleId) {
+        lock.readLock().lock();
+        try {
+            Set<Long> tagIds = articleTags.get(articleId);
+            List<String> names = new ArrayList<>();
+            if (tagIds == null) return names;
+            for (Long tagId : tagIds) {
+                String name = tagNameById.get(tagId);
+                if (name != null) names.add(name);
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Long findTagId(String name) {
+        if (name == null) return null;
+        lock.readLock().lock();
+        try {
+            return tagIdByName.get(key(name));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void putTag(Long tagId, String name) {
+        if (tagId == null || name == null) return;
+        lock.writeLock().lock();
+        try {
+            tagIdByName.put(key(name), tagId);
+            tagNameById.put(tagId, name.trim());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void setArticleTags(Long articleId, Collection<Long> tagIds) {
+        if (articleId == null) return;
+        Set<Long> newTags = tagIds == null ? new HashSet<>() : new HashSet<>(tagIds);
+        int ordinal = newTags.isEmpty() ? articleOrdinals.find(articleId) : articleOrdinals.ordinal(articleId);
+        if (ordinal < 0) return;
+        lock.writeLock().lock();
+        try {
+            Set<Long> oldTags = articleTags.getOrDefault(articleId, Collections.emptySet());
+            for (Long tagId : oldTags) {
+                if (newTags.contains(tagId)) continue;
+                RoaringBitmap posting = postings.get(tagId);
+                if (posting != null) posting.remove(ordinal);
+            }
+            for (Long tagId : newTags) {
+                if (oldTags.contains(tagId)) continue;
+                postings.computeIfAbsent(tagId, id -> new RoaringBitmap()).add(ordinal);
+            }
+            if (newTags.isEmpty()) {
+                articleTags.remove(articleId);
+            } else {
+                articleTags.put(articleId, newTags);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeArticle(Long articleId) {
+        setArticleTags(articleId, null);
+    }
+
+    @Override
+    public CacheInvalidationService.Region region() {
+        return CacheInvalidationService.Region.TAG;
+    }
+
+    @Override
+    public void onInvalidate(Set<String> keys) {
+        if (keys.contains(CacheInvalidationService.ALL)) {
+            reload();
+            return;
+        }
+        Map<Long, Set<Long>> tagsByArticle = new HashMap<>();
+        keys.forEach(key -> tagsByArticle.put(Long.valueOf(key), new HashSet<>()));
+        LambdaQueryWrapper<ArticleTagRelation> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(ArticleTagRelation::getArticleId, ArticleTagRelation::getTagId)
+                .in(ArticleTagRelation::getArticleId, tagsByArticle.keySet());
+        Set<Long> unknown = new HashSet<>();
+        for (ArticleTagRelation relation : articleTagRelationMapper.selectList(wrapper)) {
+            tagsByArticle.get(relation.getArticleId()).add(relation.getTagId());
+            if (tagName(relation.getTagId()) == null) unknown.add(relation.getTagId());
+        }
+        //别的节点新建的标签字典里还没有
+        if (!unknown.isEmpty()) {
+            LambdaQueryWrapper<ArticleTag> tagWrapper = new LambdaQueryWrapper<>();
+            tagWrapper.select(ArticleTag::getId, ArticleTag::getName).in(ArticleTag::getId, unknown);
+            for (ArticleTag tag : articleTagMapper.selectList(tagWrapper)) {
+                putTag(tag.getId(), tag.getName());
+            }
+        }
+        tagsByArticle.forEach((articleId, tagIds) -> {
+            //和全量加载一致，标签行已不存在的关联不进索引
+            tagIds.removeIf(tagId -> tagName(tagId) == null);
+            setArticleTags(articleId, tagIds);
+        });
+    }
+
+    @Override
+    public String cacheName() {
+        return "tag_index";
+    }
+
+    @Override
+    public long cacheSize() {
+        lock.readLock().lock();
+        try {
+            return articleTags.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private String tagName(Long tagId) {
+        lock.readLock().lock();
+        try {
+            return tagNameById.get(tagId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap posting(String tag) {
+        if (tag == null) return null;
+        Long tagId = tagIdByName.get(key(tag));
+        return tagId == null ? null : postings.get(tagId);
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,151 @@
+package com.polo.Blog.Service.Impl;
+
+import com.polo.Blog.Domain.Entity.ArticleEvent;
+import com.polo.Blog.Service.ArticleEventSubscriber;
+import com.polo.Blog.Service.TrendingService;
+import com.polo.Blog.Utils.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 热度分数 = Σ 权重 * 2^(-距今时长 / 半衰期)
+ * 每篇文章只保存 (分数, 上次更新时间)，写入时先把旧分数衰减到当前再累加，O(1)
+ * 排行快照由定时任务重新排序，读请求只读快照
+ */
+@Service
+public class TrendingServiceImpl implements TrendingService, ArticleEventSubscriber, CacheStats {
+
+    private static final double VIEW_WEIGHT = 1.0;
+    private static final double COMMENT_WEIGHT = 5.0;
+    private static final double LIKE_WEIGHT = 3.0;
+    //衰减到这个值以下就清理掉
+    private static final double MIN_SCORE = 0.01;
+
+    private final Map<Long, Score> scores = new ConcurrentHashMap<>();
+    private volatile List<Long> snapshot = Collections.emptyList();
+
+    //每毫秒的衰减系数 ln2 / 半衰期
+    private final double lambda;
+    private final int topN;
+
+    public TrendingServiceImpl(@Value("${trending.half-life-hours:24}") double halfLifeHours,
+                               @Value("${trending.top-n:200}") int topN) {
+        this.lambda = Math.log(2) / (halfLifeHours * 3600_000L);
+        this.topN = topN;
+    }
+
+    @Override
+    public void recordView(Long articleId) {
+        record(articleId, VIEW_WEIGHT);
+    }
+
+    @Override
+    public void recordComment(Long articleId) {
+        record(articleId, COMMENT_WEIGHT);
+    }
+
+    @Override
+    public void recordLike(Long articleId) {
+        record(articleId, LIKE_WEIGHT);
+    }
+
+    @Override
+    public void removeArticle(Long articleId) {
+        if (articleId == null) return;
+        scores.remove(articleId);
+        if (snapshot.contains(articleId)) {
+            List<Long> ids = new ArrayList<>(snapshot);
+            ids.remove(articleId);
+            snapshot = Collections.unmodifiableList(ids);
+        }
+    }
+
+    @Override
+    public void onArticleEvents(List<ArticleEvent> events) {
+        //删除的文章移出热榜，恢复后靠新的浏览重新上榜；其他节点同步过来的是编辑事件，所以只看状态
+        for (ArticleEvent event : events) {
+            if (Objects.equals(event.getArticle().getIsDeleted(), 1)) removeArticle(event.getArticleId());
+        }
+    }
+
+    @Override
+    public List<Long> getTopArticleIds() {
+        return snapshot;
+    }
+
+    @Override
+    public String cacheName() {
+        return "trending";
+    }
+
+    @Override
+    public long cacheSize() {
+        return scores.size();
+    }
+
+    /**
+     * 定时重排快照，顺便清理已经衰减没了的文章
+     */
+    @Scheduled(fixedDelayString = "${trending.refresh-ms:30000}")
+    public void refreshSnapshot() {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<Long, Double>> current = new ArrayList<>(scores.size());
+        scores.forEach((id, score) -> {
+            double value = score.valueAt(now);
+            if (value < MIN_SCORE) {
+                //在桶锁里复查再移除，和 record 的 compute 互斥，期间累加的分数不会丢
+                scores.computeIfPresent(id, (key, existing) -> existing.valueAt(now) < MIN_SCORE ? null : existing);
+            } else {
+                current.add(Map.entry(id, value));
+            }
+        });
+        current.sort(Map.Entry.<Long, Double>comparingByValue().reversed());
+        List<Long> ids = new ArrayList<>(Math.min(topN, current.size()));
+        for (int i = 0; i < current.size() && i < topN; i++) {
+            ids.add(current.get(i).getKey());
+        }
+        snapshot = Collections.unmodifiableList(ids);
+    }
+
+    private void record(Long articleId, double weight) {
+        if (articleId == null) return;
+        long now = System.currentTimeMillis();
+        //累加放在 compute 里，定时清理不会在取到 Score 和累加之间把它移出
+        scores.compute(articleId, (id, score) -> {
+            if (score == null) score = new Score(now);
+            score.add(weight, now);
+            return score;
+        });
+    }
+
+    private class Score {
+        private double value;
+        private long lastMillis;
+
+        Score(long now) {
+            this.lastMillis = now;
+        }
+
+        synchronized void add(double weight, long now) {
+            value = decay(now) + weight;
+            lastMillis = Math.max(lastMillis, now);
+        }
+
+        synchronized double valueAt(long now) {
+            return decay(now);
+        }
+
+        private double decay(long now) {
+            long elapsed = now - lastMillis;
+            return elapsed <= 0 ? value : value * Math.exp(-lambda * elapsed);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.polo.Blog.Service.Impl;
+
+import cn.hutool.crypto.digest.BCrypt;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polo.Blog.Domain.Entity.Role;
+import com.polo.Blog.Domain.Entity.User;
+import com.polo.Blog.Domain.OV.UserImportErrorVO;
+import com.polo.Blog.Domain.OV.UserImportReportVO;
+import com.polo.Blog.Mapper.RoleMapper;
+import com.polo.Blog.Service.CacheInvalidationService;
+import com.polo.Blog.Service.UserImportService;
+import com.polo.Blog.Service.UserIndexService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按行读文件，攒够一批处理一次：一次 username IN 查重，密码在线程池里并行 BCrypt，
+ * 再在一个事务里批量插入 sys_user、sys_user_role 并更新进度行号，所以进度和数据总是一致的
+ * 用户名按小写查重，和库里 username 列不区分大小写的唯一索引一致
+ */
+@Slf4j
+@Service
+public class UserImportServiceImpl implements UserImportService {
+    private static final String DEFAULT_ROLE = "user";
+    private static final String ADMIN = "admin";
+    private static final List<String> COLUMNS = List.of("username", "password", "nickname", "email", "role");
+    //失败明细最多返回的条数，超过只计数
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_USERNAME_LENGTH = 64;
+    //BCrypt 只取前 72 字节
+    private static final int MAX_PASSWORD_BYTES = 72;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private RoleMapper roleMapper;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserIndexService userIndexService;
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+    @Value("${user-import.chunk-size:500}")
+    private int chunkSize;
+    @Value("${user-import.hash-threads:0}")
+    private int hashThreads;
+    //所有导入任务共用，并发导入时加密线程总数也不超过 hashThreads
+    private ExecutorService hashPool;
+
+    @PostConstruct
+    public void start() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        hashPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        hashPool.shutdown();
+    }
+
+    @Override
+    public UserImportReportVO importUsers(InputStream in, String format, String jobId) throws IOException {
+        boolean csv = !"ndjson".equalsIgnoreCase(format) && !"jsonl".equalsIgnoreCase(format);
+        Map<String, Long> roleIds = loadRoleIds();
+        UserImportReportVO report = new UserImportReportVO();
+        report.setJobId(jobId == null || jobId.isBlank() ? IdWorker.getIdStr() : jobId.trim());
+        long resumeAfter = startJob(report.getJobId());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            Chunk chunk = new Chunk();
+            Set<String> seen = new HashSet<>();
+            int[] columns = null;
+            long lineNo = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                if (csv && columns == null) {
+                    columns = parseHeader(line);
+                    continue;
+                }
+                if (lineNo <= resumeAfter) {
+                    report.setSkipped(report.getSkipped() + 1);
+                    continue;
+                }
+                chunk.endLine = lineNo;
+                ImportRow row;
+                try {
+                    row = csv ? parseCsvRow(lineNo, line, columns) : parseJsonRow(lineNo, line);
+                } catch (Exception e) {
+                    chunk.errors.add(new UserImportErrorVO(lineNo, null, "解析失败: " + e.getMessage()));
+                    continue;
+                }
+                String error = validate(row, roleIds);
+                if (error == null && !seen.add(key(row.username))) error = "文件内用户名重复";
+                if (error != null) {
+                    chunk.errors.add(new UserImportErrorVO(lineNo, row.username, error));
+                } else {
+                    chunk.rows.add(row);
+                }
+                if (chunk.rows.size() + chunk.errors.size() >= chunkSize) {
+                    flush(report, chunk, roleIds);
+                    chunk = new Chunk();
+                }
+            }
+            if (chunk.endLine > 0) flush(report, chunk, roleIds);
+            jdbcTemplate.update("UPDATE sys_user_import_job SET finished = 1, update_time = ? WHERE job_id = ?",
+                    Timestamp.valueOf(LocalDateTime.now()), report.getJobId());
+        }
+        report.setLastLine(Math.max(report.getLastLine(), resumeAfter));
+        log.info("用户导入 {} 完成，导入 {}，失败 {}，跳过 {}", report.getJobId(), report.getImported(), report.getFailed(), report.getSkipped());
+        return report;
+    }
+
+    /**
+     * 处理一批：查重 -> 并行加密 -> 一个事务里批量写入并推进进度
+     */
+    private void flush(UserImportReportVO report, Chunk chunk, Map<String, Long> roleIds) {
+        removeExisting(chunk);
+        List<CompletableFuture<String>> hashes = new ArrayList<>(chunk.rows.size());
+        for (ImportRow row : chunk.rows) {
+            hashes.add(CompletableFuture.supplyAsync(() -> BCrypt.hashpw(row.password), hashPool));
+        }
+        for (int i = 0; i < chunk.rows.size(); i++) {
+            chunk.rows.get(i).passwordHash = hashes.get(i).join();
+        }
+        List<User> imported;
+        try {
+            imported = commit(report.getJobId(), chunk, roleIds);
+        } catch (DuplicateKeyException e) {
+            //查重之后有人注册了同名用户，整批回滚，重新查重后再提交一次
+            removeExisting(chunk);
+            imported = commit(report.getJobId(), chunk, roleIds);
+        }
+        imported.forEach(userIndexService::putUser);
+        cacheInvalidationService.broadcast(CacheInvalidationService.Region.USER, imported.stream().map(User::getId).toList());
+        report.setImported(report.getImported() + chunk.rows.size());
+        report.setFailed(report.getFailed() + chunk.errors.size());
+        report.setLastLine(chunk.endLine);
+        for (UserImportErrorVO error : chunk.errors) {
+            if (report.getErrors().size() >= MAX_REPORTED_ERRORS) {
+                report.setTruncated(true);
+                break;
+            }
+            report.getErrors().add(error);
+        }
+    }
+
+    /**
+     * 一次 IN 查询找出库里已有的用户名(含已逻辑删除的，唯一索引不区分)
+     * 库里比较不区分大小写，返回的是库里的写法，按小写比对
+     */
+    private void removeExisting(Chunk chunk) {
+        if (chunk.rows.isEmpty()) return;
+        List<String> usernames = chunk.rows.stream().map(row -> row.username).toList();
+        Set<String> existing = new HashSet<>();
+        for (String username : namedParameterJdbcTemplate.queryForList(
+                "SELECT username FROM sys_user WHERE username IN (:usernames)", Map.of("usernames", usernames), String.class)) {
+            existing.add(key(username));
+        }
+        if (existing.isEmpty()) return;
+        Iterator<ImportRow> iterator = chunk.rows.iterator();
+        while (iterator.hasNext()) {
+            ImportRow row = iterator.next();
+            if (existing.contains(key(row.username))) {
+                chunk.errors.add(new UserImportErrorVO(row.line, row.username, "用户名已存在"));
+                iterator.remove();
+            }
+        }
+        chunk.errors.sort(Comparator.comparingLong(UserImportErrorVO::getLine));
+    }
+
+    /**
+     * @return 写入的用户(不含密码)，提交后放进用户索引
+     */
+    private List<User> commit(String jobId, Chunk chunk, Map<String, Long> roleIds) {
+        LocalDateTime createTime = LocalDateTime.now();
+        Timestamp now = Timestamp.valueOf(createTime);
+        List<Object[]> users = new ArrayList<>(chunk.rows.size());
+        List<Object[]> userRoles = new ArrayList<>(chunk.rows.size());
+        List<User> imported = new ArrayList<>(chunk.rows.size());
+        for (ImportRow row : chunk.rows) {
+            long id = IdWorker.getId();
+            users.add(new Object[]{id, row.username, row.passwordHash, row.nickname, row.email, now, now});
+            userRoles.add(new Object[]{id, roleIds.get(row.role)});
+            User user = new User();
+            user.setId(id);
+            user.setUsername(row.username);
+            user.setNickname(row.nickname);
+            user.setEmail(row.email);
+            user.setStatus("0");
+            user.setCreateTime(createTime);
+            user.setIsDeleted(0);
+            imported.add(user);
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!users.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT INTO sys_user (id, username, password, nickname, email, status, create_time, update_time, is_deleted) "
+                        + "VALUES (?, ?, ?, ?, ?, '0', ?, ?, 0)", users);
+                jdbcTemplate.batchUpdate("INSERT INTO sys_user_role (user_id, role_id) VALUES (?, ?)", userRoles);
+            }
+            jdbcTemplate.update("UPDATE sys_user_import_job SET last_line = ?, imported = imported + ?, failed = failed + ?, update_time = ? WHERE job_id = ?",
+                    chunk.endLine, users.size(), chunk.errors.size(), now, jobId);
+        });
+        return imported;
+    }
+
+    /**
+     * 新任务建一条进度记录；已有任务返回上次提交到的行号
+     */
+    private long startJob(String jobId) {
+        List<Long> lastLine = jdbcTemplate.queryForList("SELECT last_line FROM sys_user_import_job WHERE job_id = ?", Long.class, jobId);
+        if (!lastLine.isEmpty()) return lastLine.get(0);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO sys_user_import_job (job_id, last_line, imported, failed, finished, create_time, update_time) VALUES (?, 0, 0, 0, 0, ?, ?)",
+                jobId, now, now);
+        return 0;
+    }
+
+    private Map<String, Long> loadRoleIds() {
+        LambdaQueryWrapper<Role> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(Role::getStatus, "0").eq(Role::getIsDeleted, 0);
+        Map<String, Long> roleIds = new HashMap<>();
+        for (Role role : roleMapper.selectList(wrapper)) {
+            roleIds.put(role.getRoleKey(), role.getId());
+        }
+        return roleIds;
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static String validate(ImportRow row, Map<String, Long> roleIds) {
+        if (row.username == null || row.username.isBlank()) return "用户名不能为空";
+        if (row.username.length() > MAX_USERNAME_LENGTH) return "用户名过长";
+        if (row.password == null || row.password.isEmpty()) return "密码不能为空";
+        if (row.password.getBytes(StandardCharsets.UTF_8).length > MAX_PASSWORD_BYTES) return "密码过长";
+        if (ADMIN.equals(row.role)) return "不能导入管理员";
+        if (!roleIds.containsKey(row.role)) return "角色不存在: " + row.role;
+        return null;
+    }
+
+    /**
+     * 表头 -> 各字段所在的列，缺 username 或 password 列直接失败
+     */
+    private static int[] parseHeader(String line) {
+        List<String> header = parseCsvLine(line);
+        int[] columns = new int[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            columns[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (COLUMNS.get(i).equalsIgnoreCase(header.get(j).trim())) columns[i] = j;
+            }
+        }
+        if (columns[0] < 0 || columns[1] < 0) throw new IllegalArgumentException("CSV 表头需要包含 username 和 password 列");
+        return columns;
+    }
+
+    private static ImportRow parseCsvRow(long lineNo, String line, int[] columns) {
+        List<String> values = parseCsvLine(line);
+        String[] fields = new String[COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            fields[i] = columns[i] >= 0 && columns[i] < values.size() ? values.get(columns[i]) : null;
+        }
+        return new ImportRow(lineNo, fields);
+    }
+
+    private ImportRow parseJsonRow(long lineNo, String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        if (node == null || !node.isObject()) throw new IllegalArgumentException("不是 JSON 对象");
+        String[] fields = new String[COLUMNS.size()];
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            JsonNode value = node.get(COLUMNS.get(i));
+            fields[i] = value == null || value.isNull() ? null : value.asText();
+        }
+        return new ImportRow(lineNo, fields);
+    }
+
+    /**
+     * 按 RFC 4180 拆一行：逗号分隔，双引号包裹的字段里可以有逗号，"" 表示一个引号(不支持字段内换行)
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("引号未闭合");
+        values.add(current.toString());
+        return values;
+    }
+
+    private static class ImportRow {
+        final long line;
+        final String username;
+        final String password;
+        final String nickname;
+        final String email;
+        final String role;
+        String passwordHash;
+
+        ImportRow(long line, String[] fields) {
+            this.line = line;
+            this.username = trimToNull(fields[0]);
+            this.password = fields[1];
+            this.nickname = trimToNull(fields[2]);
+            this.email = trimToNull(fields[3]);
+            String role = trimToNull(fields[4]);
+            this.role = role == null ? DEFAULT_ROLE : role;
+        }
+
+        private static String trimToNull(String value) {
+            if (value == null) return null;
+            String trimmed = value.trim();
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+    }
+
+    private static class Chunk {
+        final List<ImportRow> rows = new ArrayList<>();
+        final List<UserImportErrorVO> errors = new ArrayList<>();
+        //这一批读到的最后一行，提交后作为进度
+        long endLine;
+    }
+}
@@ -0,0 +1,321 @@
+package com.polo.Blog.Service.Impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.polo.Blog.Domain.Entity.User;
+import com.polo.Blog.Domain.OV.UserVO;
+import com.polo.Blog.Mapper.UserMapper;
+import com.polo.Blog.Service.CacheInvalidationListener;
+import com.polo.Blog.Service.CacheInvalidationService;
+import com.polo.Blog.Service.UserIndexService;
+import com.polo.Blog.Utils.CacheStats;
+import com.polo.Blog.Utils.IdDictionary;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 启动时加载未删除的用户，用户名、昵称、邮箱(转小写)的 1~3 字 gram 各建一个用户位图
+ * 查询取关键词的 gram 求交得到候选，再逐个确认子串并打分，只保留前 N 个排序
+ */
+@Slf4j
+@Service
+public class UserIndexServiceImpl implements UserIndexService, CacheInvalidationListener, CacheStats {
+    private static final int MAX_GRAM = 3;
+    private static final int MAX_SUGGEST = 20;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IdDictionary userOrdinals = new IdDictionary();
+    //以下均由 lock 保护
+    private final Map<String, RoaringBitmap> postings = new HashMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("用户索引加载失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 全量重建索引
+     */
+    public void reload() {
+        Map<String, RoaringBitmap> newPostings = new HashMap<>();
+        Map<Long, Doc> newDocs = new HashMap<>();
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(User::getId, User::getUsername, User::getNickname, User::getEmail, User::getAvatar,
+                        User::getIntro, User::getStatus, User::getCreateTime)
+                .eq(User::getIsDeleted, 0);
+        userMapper.selectList(wrapper, context -> {
+            Doc doc = new Doc(context.getResultObject());
+            int ordinal = userOrdinals.ordinal(doc.user.getId());
+            for (String gram : doc.grams()) {
+                newPostings.computeIfAbsent(gram, key -> new RoaringBitmap()).add(ordinal);
+            }
+            newDocs.put(doc.user.getId(), doc);
+        });
+        newPostings.values().forEach(RoaringBitmap::runOptimize);
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            postings.putAll(newPostings);
+            docs.clear();
+            docs.putAll(newDocs);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("用户索引加载完成，用户数: {}，gram 数: {}", newDocs.size(), newPostings.size());
+    }
+
+    @Override
+    public IPage<UserVO> search(String keyword, int pageNum, int pageSize) {
+        int page = Math.max(pageNum, 1);
+        int size = Math.max(pageSize, 1);
+        List<Match> top = new ArrayList<>();
+        long total = collect(keyword, (long) page * size, top);
+        Page<UserVO> result = new Page<>(page, size, total);
+        int from = (int) Math.min((long) (page - 1) * size, top.size());
+        return result.setRecords(toVOList(top.subList(from, top.size())));
+    }
+
+    @Override
+    public List<UserVO> suggest(String keyword, int limit) {
+        List<Match> top = new ArrayList<>();
+        collect(keyword, Math.min(Math.max(limit, 1), MAX_SUGGEST), top);
+        return toVOList(top);
+    }
+
+    @Override
+    public void putUser(User user) {
+        if (user == null || user.getId() == null) return;
+        if (Objects.equals(user.getIsDeleted(), 1)) {
+            removeUser(user.getId());
+            return;
+        }
+        Doc doc = new Doc(copy(user));
+        int ordinal = userOrdinals.ordinal(user.getId());
+        lock.writeLock().lock();
+        try {
+            Doc old = docs.put(user.getId(), doc);
+            Set<String> newGrams = doc.grams();
+            if (old != null) {
+                for (String gram : old.grams()) {
+                    if (newGrams.contains(gram)) continue;
+                    RoaringBitmap posting = postings.get(gram);
+                    if (posting != null) posting.remove(ordinal);
+                }
+            }
+            for (String gram : newGrams) {
+                postings.computeIfAbsent(gram, key -> new RoaringBitmap()).add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeUser(Long userId) {
+        if (userId == null) return;
+        int ordinal = userOrdinals.find(userId);
+        if (ordinal < 0) return;
+        lock.writeLock().lock();
+        try {
+            Doc old = docs.remove(userId);
+            if (old == null) return;
+            for (String gram : old.grams()) {
+                RoaringBitmap posting = postings.get(gram);
+                if (posting != null) posting.remove(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public CacheInvalidationService.Region region() {
+        return CacheInvalidationService.Region.USER;
+    }
+
+    /**
+     * 其他节点改了用户：按库里的最新数据重新索引，查不到的(已删除)移出
+     */
+    @Override
+    public void onInvalidate(Set<String> keys) {
+        if (keys.contains(CacheInvalidationService.ALL)) {
+            reload();
+            return;
+        }
+        Set<Long> ids = new HashSet<>();
+        keys.forEach(key -> ids.add(Long.valueOf(key)));
+        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(User::getId, User::getUsername, User::getNickname, User::getEmail, User::getAvatar,
+                        User::getIntro, User::getStatus, User::getCreateTime, User::getIsDeleted)
+                .in(User::getId, ids);
+        for (User user : userMapper.selectList(wrapper)) {
+            putUser(user);
+            ids.remove(user.getId());
+        }
+        ids.forEach(this::removeUser);
+    }
+
+    @Override
+    public String cacheName() {
+        return "user_index";
+    }
+
+    @Override
+    public long cacheSize() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 找出全部命中并把排名前 limit 的按顺序放进 top
+     * @return 命中总数
+     */
+    private long collect(String keyword, long limit, List<Match> top) {
+        String key = keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) return 0;
+        //堆顶是当前前 limit 个里最差的
+        PriorityQueue<Match> heap = new PriorityQueue<>(Match.ORDER.reversed());
+        long total = 0;
+        lock.readLock().lock();
+        try {
+            RoaringBitmap candidates = candidates(key);
+            if (candidates == null) return 0;
+            for (int ordinal : candidates) {
+                Doc doc = docs.get(userOrdinals.id(ordinal));
+                int score = doc == null ? -1 : doc.score(key);
+                if (score < 0) continue;
+                total++;
+                Match match = new Match(doc, score);
+                if (heap.size() < limit) {
+                    heap.add(match);
+                } else if (Match.ORDER.compare(match, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(match);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        top.addAll(heap);
+        top.sort(Match.ORDER);
+        return total;
+    }
+
+    /**
+     * 关键词所有 gram 的位图求交，从最小的开始；gram 取 min(3, 关键词长度) 个字
+     */
+    private RoaringBitmap candidates(String key) {
+        int n = Math.min(MAX_GRAM, key.length());
+        List<RoaringBitmap> included = new ArrayList<>();
+        for (int i = 0; i + n <= key.length(); i++) {
+            RoaringBitmap posting = postings.get(key.substring(i, i + n));
+            if (posting == null) return null;
+            included.add(posting);
+        }
+        included.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        RoaringBitmap result = included.get(0).clone();
+        for (int i = 1; i < included.size() && !result.isEmpty(); i++) {
+            result.and(included.get(i));
+        }
+        return result;
+    }
+
+    private static List<UserVO> toVOList(List<Match> matches) {
+        List<UserVO> userVOList = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            UserVO userVO = new UserVO();
+            BeanUtils.copyProperties(match.doc.user, userVO);
+            userVOList.add(userVO);
+        }
+        return userVOList;
+    }
+
+    /**
+     * 只留列表展示需要的字段，不把密码放进内存索引
+     */
+    private static User copy(User user) {
+        User indexed = new User();
+        indexed.setId(user.getId());
+        indexed.setUsername(user.getUsername());
+        indexed.setNickname(user.getNickname());
+        indexed.setEmail(user.getEmail());
+        indexed.setAvatar(user.getAvatar());
+        indexed.setIntro(user.getIntro());
+        indexed.setStatus(user.getStatus());
+        indexed.setCreateTime(user.getCreateTime());
+        return indexed;
+    }
+
+    private static class Doc {
+        final User user;
+        final String username;
+        final String nickname;
+        final String email;
+
+        Doc(User user) {
+            this.user = user;
+            this.username = lower(user.getUsername());
+            this.nickname = lower(user.getNickname());
+            this.email = lower(user.getEmail());
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            for (String field : new String[]{username, nickname, email}) {
+                for (int n = 1; n <= MAX_GRAM; n++) {
+                    for (int i = 0; i + n <= field.length(); i++) {
+                        grams.add(field.substring(i, i + n));
+                    }
+                }
+            }
+            return grams;
+        }
+
+        /**
+         * 越小越靠前，-1 表示 gram 都有但不是连续子串
+         */
+        int score(String key) {
+            if (username.equals(key)) return 0;
+            if (username.startsWith(key)) return 1;
+            if (nickname.startsWith(key)) return 2;
+            if (email.startsWith(key)) return 3;
+            if (username.contains(key)) return 4;
+            if (nickname.contains(key)) return 5;
+            if (email.contains(key)) return 6;
+            return -1;
+        }
+
+        private static String lower(String value) {
+            return value == null ? "" : value.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private record Match(Doc doc, int score) {
+        //分数相同时短用户名在前，再按 id(注册先后)
+        static final Comparator<Match> ORDER = Comparator.comparingInt(Match::score)
+                .thenComparingInt(match -> match.doc.username.length())
+                .thenComparingLong(match -> match.doc.user.getId());
+    }
+}
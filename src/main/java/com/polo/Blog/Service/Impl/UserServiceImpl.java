@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.polo.Blog.Annotation.ReadReplica;
 import com.polo.Blog.Domain.DTO.LoginUserDTO;
 import com.polo.Blog.Domain.DTO.UserDTO;
 import com.polo.Blog.Domain.Entity.Role;
@@ -12,7 +13,10 @@ import com.polo.Blog.Domain.Entity.User;
 import com.polo.Blog.Domain.Entity.UserRole;
 import com.polo.Blog.Domain.OV.UserVO;
 import com.polo.Blog.Mapper.UserMapper;
+import com.polo.Blog.Service.CacheInvalidationService;
+import com.polo.Blog.Service.PresenceService;
 import com.polo.Blog.Service.RoleService;
+import com.polo.Blog.Service.UserIndexService;
 import com.polo.Blog.Service.UserRoleService;
 import com.polo.Blog.Service.UserService;
 import com.polo.Blog.Utils.EntityListToVOList;
@@ -23,7 +27,7 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
 
 @Service
@@ -32,9 +36,15 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     private RoleService roleService;
     @Autowired
     private UserRoleService userRoleService;
+    @Autowired
+    private UserIndexService userIndexService;
+    @Autowired
+    private PresenceService presenceService;
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
     //在严谨的项目中需要给登录的用户创建Token用户后续操作的身份验证
     @Override
-    public Result loginHandel(LoginUserDTO loginUserDTO){
+    public Result loginHandel(LoginUserDTO loginUserDTO, String ip){
         LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
         LambdaQueryWrapper<UserRole> userRoleWrapper = new LambdaQueryWrapper<>();
         LambdaQueryWrapper<Role> roleWrapper = new LambdaQueryWrapper<>();
@@ -47,16 +57,15 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if(!BCrypt.checkpw(loginUserDTO.getPassword(), user.getPassword())){
             return new Result<>( 500, "密码错误", "");
         }
-        //上线
-        user.setStatus("1");
-        this.updateById(user);
+        //上线，登录时间和 IP 由在线登记定时批量写库
+        presenceService.login(user.getId(), user.getUsername(), ip);
         //获取角色
         userRoleWrapper.eq(UserRole::getUserId, user.getId());
         UserRole userRole = userRoleService.getOne(userRoleWrapper);
         roleWrapper.eq(Role::getId, userRole.getRoleId());
         Role role = roleService.getOne(roleWrapper);
         //登录成功返回Token
-        return new Result<>(200, "成功响应", JwtUtils.generateToken(user.getUsername(), role.getRoleKey()));
+        return new Result<>(200, "成功响应", JwtUtils.generateToken(user.getUsername(), role.getRoleKey(), user.getId()));
     }
     @Override
     public String registerHandel(LoginUserDTO loginUserDTO, String isAuth){
@@ -84,6 +93,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         }
         userRole.setUserId(userSave.getId());
         userRoleService.save(userRole);
+        userIndexService.putUser(userSave);
+        cacheInvalidationService.broadcast(CacheInvalidationService.Region.USER, userSave.getId());
 
         return "注册成功";
     }
@@ -95,10 +106,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if(user == null){
             return "没有该用户";
         }
-        //更新用户数据
-        user.setLoginDate(LocalDateTime.now());
-        user.setStatus("0");
-        this.updateById(user);
+        //下线，不写库
+        presenceService.logout(user.getId());
 
         return "登出成功";
     }
@@ -112,6 +121,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         }
         //逻辑注解使is_deleted在删除时自动设为1达到逻辑删除的效果
         this.removeById(user.getId());
+        userIndexService.removeUser(user.getId());
+        cacheInvalidationService.broadcast(CacheInvalidationService.Region.USER, user.getId());
         return "删除用户成功";
     }
     @Override
@@ -124,6 +135,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         User user = this.getOne(wrapper);
         //复制详细信息
         BeanUtils.copyProperties(user, userVO);
+        userVO.setOnline(presenceService.isOnline(user.getId()));
         //获取角色
         userRoleWrapper.eq(UserRole::getUserId, user.getId());
         long roleId = userRoleService.getOne(userRoleWrapper).getRoleId();
@@ -143,6 +155,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         BeanUtils.copyProperties(userDTO, user);
         user.setUsername(userName);
         this.updateById(user);
+        //DTO 里为空的字段不会更新，索引按库里的最新值刷新
+        userIndexService.putUser(this.getById(user.getId()));
+        cacheInvalidationService.broadcast(CacheInvalidationService.Region.USER, user.getId());
         return "更新用户信息成功";
     }
 
@@ -164,11 +179,10 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
     @Override
     public UserVO getUserDetailById(Long id){
-        UserContext.LoginUser loginUser = UserContext.get();
-        if(!Objects.equals(loginUser.getRoleKey(), "admin")) return new UserVO();
         User user = this.getById(id);
         UserVO userVO = new UserVO();
         BeanUtils.copyProperties(user, userVO);
+        userVO.setOnline(presenceService.isOnline(user.getId()));
         //查用户角色关联
         LambdaQueryWrapper<UserRole> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(UserRole::getUserId, user.getId());
@@ -185,48 +199,49 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
     @Override
     public String deleteUserById(Long id){
-        UserContext.LoginUser loginUser = UserContext.get();
-        if(!Objects.equals(loginUser.getRoleKey(), "admin")) return "错误操作";
         User user = this.getById(id);
         user.setIsDeleted(1);
         this.updateById(user);
+        userIndexService.removeUser(id);
+        cacheInvalidationService.broadcast(CacheInvalidationService.Region.USER, id);
         return "删除成功";
     }
 
+    @ReadReplica
     @Override
     public IPage<UserVO> getUserList(int pageNum, int pageSize){
         //分页
         Page<User> pageInfo = new Page<>(pageNum, pageSize);
-        UserContext.LoginUser loginUser = UserContext.get();
         LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
-        if(!Objects.equals(loginUser.getRoleKey(), "admin")) {
-            return new Page<>();
-        }
         wrapper.eq(User::getIsDeleted, 0);
         //按浏览量降序
         IPage<User> result = this.page(pageInfo, wrapper);
         IPage<UserVO> userVOList = new Page<>();
 
         BeanUtils.copyProperties(result, userVOList);
-        return  userVOList.setRecords(EntityListToVOList.userListToVOList(pageInfo.getRecords()));
+        return  userVOList.setRecords(markOnline(EntityListToVOList.userListToVOList(pageInfo.getRecords())));
     }
 
     @Override
     public IPage<UserVO> searchUserByKeyWord(int pageNum, int pageSize, String keyword){
-        //分页
-        Page<User> pageInfo = new Page<>(pageNum, pageSize);
-        UserContext.LoginUser loginUser = UserContext.get();
-        LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
-        if(!Objects.equals(loginUser.getRoleKey(), "admin")) {
-            return new Page<>();
+        //没有关键词就是普通列表
+        if(keyword == null || keyword.isBlank()){
+            return getUserList(pageNum, pageSize);
         }
-        wrapper.eq(User::getIsDeleted, 0);
-        wrapper.like(User::getUsername, keyword);
-        //按浏览量降序
-        IPage<User> result = this.page(pageInfo, wrapper);
-        IPage<UserVO> userVOList = new Page<>();
+        //用户名、昵称、邮箱的子串搜索走内存索引
+        IPage<UserVO> result = userIndexService.search(keyword, pageNum, pageSize);
+        markOnline(result.getRecords());
+        return result;
+    }
 
-        BeanUtils.copyProperties(result, userVOList);
-        return  userVOList.setRecords(EntityListToVOList.userListToVOList(pageInfo.getRecords()));
+    @Override
+    public List<UserVO> suggestUser(String keyword, int limit){
+        return userIndexService.suggest(keyword, limit);
+    }
+
+    //在线状态以内存登记为准
+    private List<UserVO> markOnline(List<UserVO> userVOList){
+        userVOList.forEach(userVO -> userVO.setOnline(presenceService.isOnline(userVO.getId())));
+        return userVOList;
     }
 }
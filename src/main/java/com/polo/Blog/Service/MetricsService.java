@@ -0,0 +1,9 @@
+package com.polo.Blog.Service;
+
+public interface MetricsService {
+    /**
+     * 导出全部指标(Prometheus 文本格式)：接口耗时、SQL 耗时、连接池、内存缓存
+     * @return 指标文本
+     */
+    String scrape();
+}
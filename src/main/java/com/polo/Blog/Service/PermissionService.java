@@ -0,0 +1,42 @@
+package com.polo.Blog.Service;
+
+import com.polo.Blog.Domain.OV.MenuVO;
+
+import java.util.List;
+import java.util.Set;
+
+public interface PermissionService {
+    /**
+     * 权限标识对应的位下标，同一个标识始终不变，可以缓存
+     * @param perms 权限标识
+     * @return 位下标
+     */
+    int permissionBit(String perms);
+
+    /**
+     * 角色是否拥有某个权限位，管理员拥有全部权限
+     * @param roleKey 角色标识
+     * @param bit 权限位下标
+     * @return 是否拥有
+     */
+    boolean hasPermission(String roleKey, int bit);
+
+    /**
+     * 角色拥有的权限标识
+     * @param roleKey 角色标识
+     * @return 权限标识集合
+     */
+    Set<String> getPermissions(String roleKey);
+
+    /**
+     * 角色可见的菜单(目录和菜单，不含按钮)
+     * @param roleKey 角色标识
+     * @return 菜单列表
+     */
+    List<MenuVO> getMenus(String roleKey);
+
+    /**
+     * 重新从 sys_role / sys_menu / sys_role_menu 加载
+     */
+    void reload();
+}
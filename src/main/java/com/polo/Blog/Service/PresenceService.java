@@ -0,0 +1,53 @@
+package com.polo.Blog.Service;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.polo.Blog.Domain.OV.OnlineUserVO;
+
+/**
+ * 在线用户登记：登录和带 Token 的请求刷新最后活跃时间，超过 TTL 没有请求视为下线
+ * 登录时间和 IP 定时批量写回 sys_user，不在每次登录/登出时写库
+ */
+public interface PresenceService {
+    /**
+     * 登录成功，开始新会话
+     * @param userId 用户id
+     * @param username 用户名
+     * @param ip 客户端 IP
+     */
+    void login(Long userId, String username, String ip);
+
+    /**
+     * 已登录用户的请求，心跳间隔内的重复调用直接返回
+     * @param userId 用户id(旧 Token 没有时忽略)
+     * @param username 用户名
+     * @param ip 客户端 IP
+     */
+    void touch(Long userId, String username, String ip);
+
+    /**
+     * 主动登出
+     * @param userId 用户id
+     */
+    void logout(Long userId);
+
+    /**
+     * 是否在线
+     * @param userId 用户id
+     * @return TTL 内有过请求
+     */
+    boolean isOnline(Long userId);
+
+    /**
+     * 在线人数
+     * @return 未过期的会话数
+     */
+    long onlineCount();
+
+    /**
+     * 在线用户列表，最近活跃的在前
+     * @param pageNum 页数
+     * @param pageSize 页大小
+     * @return 返回一页
+     */
+    IPage<OnlineUserVO> onlineUsers(int pageNum, int pageSize);
+}
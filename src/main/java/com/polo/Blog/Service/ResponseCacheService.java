@@ -0,0 +1,27 @@
+package com.polo.Blog.Service;
+
+import com.polo.Blog.Utils.CachedResponse;
+
+import java.util.function.Supplier;
+
+public interface ResponseCacheService {
+    /**
+     * 缓存分区，按写入事件整区失效
+     */
+    enum Region {ARTICLE, CATEGORY}
+
+    /**
+     * 取缓存的响应字节，没有或已失效时调用 loader 生成并序列化
+     * @param region 分区
+     * @param key 分区内的键(接口 + 角色类别 + 分页)
+     * @param loader 生成响应对象(通常是 Result)
+     * @return 序列化好的响应
+     */
+    CachedResponse get(Region region, String key, Supplier<?> loader);
+
+    /**
+     * 整个分区失效
+     * @param region 分区
+     */
+    void invalidate(Region region);
+}
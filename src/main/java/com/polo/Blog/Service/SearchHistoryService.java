@@ -4,4 +4,9 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import com.polo.Blog.Domain.Entity.SearchHistory;
 
 public interface SearchHistoryService extends IService<SearchHistory> {
+    /**
+     * 记一次搜索：已有该关键词搜索次数加一，没有则新建
+     * @param keyword 关键词，为空不记
+     */
+    void recordSearch(String keyword);
 }
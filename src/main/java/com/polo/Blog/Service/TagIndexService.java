@@ -0,0 +1,60 @@
+package com.polo.Blog.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 标签 -> 文章倒排索引，多标签查询在内存里做位图交并差
+ */
+public interface TagIndexService {
+    /**
+     * 多标签查询
+     * @param tags 标签名
+     * @param matchAll true 需要同时带有全部标签(AND)，false 带有任一标签即可(OR)
+     * @param excludeTags 不能带有的标签(NOT)
+     * @return 命中的文章id
+     */
+    List<Long> queryArticleIds(Collection<String> tags, boolean matchAll, Collection<String> excludeTags);
+
+    /**
+     * 文章当前的标签id
+     * @param articleId 文章id
+     * @return 标签id集合
+     */
+    Set<Long> getTagIds(Long articleId);
+
+    /**
+     * 文章当前的标签名
+     * @param articleId 文章id
+     * @return 标签名
+     */
+    List<String> getTagNames(Long articleId);
+
+    /**
+     * 按标签名找标签id
+     * @param name 标签名
+     * @return 没有返回 null
+     */
+    Long findTagId(String name);
+
+    /**
+     * 登记新标签
+     * @param tagId 标签id
+     * @param name 标签名
+     */
+    void putTag(Long tagId, String name);
+
+    /**
+     * 用文章的新标签集合替换索引中的旧集合，关联表写入成功后调用
+     * @param articleId 文章id
+     * @param tagIds 新的标签id
+     */
+    void setArticleTags(Long articleId, Collection<Long> tagIds);
+
+    /**
+     * 从索引中移除文章
+     * @param articleId 文章id
+     */
+    void removeArticle(Long articleId);
+}
@@ -0,0 +1,38 @@
+package com.polo.Blog.Service;
+
+import java.util.List;
+
+/**
+ * 近期热度（趋势）排行，按时间指数衰减
+ */
+public interface TrendingService {
+    /**
+     * 记录一次浏览
+     * @param articleId 文章id
+     */
+    void recordView(Long articleId);
+
+    /**
+     * 记录一次评论
+     * @param articleId 文章id
+     */
+    void recordComment(Long articleId);
+
+    /**
+     * 记录一次点赞
+     * @param articleId 文章id
+     */
+    void recordLike(Long articleId);
+
+    /**
+     * 文章删除或下架后移出排行
+     * @param articleId 文章id
+     */
+    void removeArticle(Long articleId);
+
+    /**
+     * 获取最近一次排好序的快照
+     * @return 按热度降序的文章id
+     */
+    List<Long> getTopArticleIds();
+}
@@ -0,0 +1,18 @@
+package com.polo.Blog.Service;
+
+import com.polo.Blog.Domain.OV.UserImportReportVO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+    /**
+     * 流式导入用户，CSV 首行为表头(username,password,nickname,email,role)，NDJSON 每行一个同名字段的对象
+     * 每批一次用户名查重、并行加密密码、批量写入用户和角色并记录进度
+     * @param in 文件内容(UTF-8)
+     * @param format csv 或 ndjson
+     * @param jobId 任务id，为空时新建；已有的任务从上次提交的行之后继续
+     * @return 导入结果和每行的失败原因
+     */
+    UserImportReportVO importUsers(InputStream in, String format, String jobId) throws IOException;
+}
@@ -0,0 +1,41 @@
+package com.polo.Blog.Service;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.polo.Blog.Domain.Entity.User;
+import com.polo.Blog.Domain.OV.UserVO;
+
+import java.util.List;
+
+/**
+ * 用户名、昵称、邮箱的 n-gram 倒排索引，后台用户搜索和输入联想不查库
+ */
+public interface UserIndexService {
+    /**
+     * 子串搜索，按匹配程度排序(用户名完全相同 > 用户名前缀 > 昵称/邮箱前缀 > 子串)
+     * @param keyword 关键词，不区分大小写
+     * @param pageNum 页数
+     * @param pageSize 页大小
+     * @return 返回一页
+     */
+    IPage<UserVO> search(String keyword, int pageNum, int pageSize);
+
+    /**
+     * 输入联想，排序同 search
+     * @param keyword 已输入的内容
+     * @param limit 最多返回条数
+     * @return 匹配度最高的用户
+     */
+    List<UserVO> suggest(String keyword, int limit);
+
+    /**
+     * 新增或更新用户(已删除的会移出索引)
+     * @param user 至少带 id、用户名、昵称、邮箱
+     */
+    void putUser(User user);
+
+    /**
+     * 移出索引
+     * @param userId 用户id
+     */
+    void removeUser(Long userId);
+}
@@ -9,13 +9,16 @@ import com.polo.Blog.Domain.OV.UserVO;
 import com.polo.Blog.Utils.Result;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 public interface UserService extends IService<User> {
     /**
      * 用户登录处理
      * @param loginUserDTO 传入登录对象（包含用户名和密码）
+     * @param ip 客户端 IP
      * @return 登录成功信息
      */
-    Result loginHandel(LoginUserDTO loginUserDTO);
+    Result loginHandel(LoginUserDTO loginUserDTO, String ip);
 
     /**
      * 用户注册处理
@@ -91,4 +94,12 @@ public interface UserService extends IService<User> {
      * @return 返回一页
      */
     IPage<UserVO> searchUserByKeyWord(int pageNum, int pageSize, String keyword);
+
+    /**
+     * 后台搜索框输入联想
+     * @param keyword 已输入的内容
+     * @param limit 最多返回条数
+     * @return 匹配度最高的用户
+     */
+    List<UserVO> suggestUser(String keyword, int limit);
 }
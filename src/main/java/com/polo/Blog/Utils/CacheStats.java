@@ -0,0 +1,30 @@
+package com.polo.Blog.Utils;
+
+/**
+ * 内存缓存/索引对外暴露的统计，由 /metrics/prometheus 统一导出
+ */
+public interface CacheStats {
+    /**
+     * 缓存名，作为 cache 标签
+     */
+    String cacheName();
+
+    /**
+     * 当前条目数
+     */
+    long cacheSize();
+
+    /**
+     * 命中次数，不统计返回 -1
+     */
+    default long cacheHits() {
+        return -1;
+    }
+
+    /**
+     * 未命中次数，不统计返回 -1
+     */
+    default long cacheMisses() {
+        return -1;
+    }
+}
@@ -0,0 +1,38 @@
+package com.polo.Blog.Utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * 已经序列化好的 JSON 响应(可带 gzip 版本)，直接作为字节写出，不再经过 Jackson
+ */
+public class CachedResponse {
+    private final byte[] json;
+    //小响应不压缩，为空
+    private final byte[] gzip;
+
+    public CachedResponse(byte[] json, byte[] gzip) {
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    /**
+     * 客户端支持 gzip 且有压缩版本时返回压缩字节
+     */
+    public ResponseEntity<byte[]> toResponse(HttpServletRequest request) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+        }
+        return builder.body(json);
+    }
+}
@@ -0,0 +1,40 @@
+package com.polo.Blog.Utils;
+
+/**
+ * 当前线程的数据源路由 - 基于 ThreadLocal
+ * 进入时保存上一层的值，退出时还原，支持嵌套
+ */
+public class DataSourceContext {
+
+    public enum Route {
+        PRIMARY, // 主库
+        REPLICA  // 从库
+    }
+
+    private static final ThreadLocal<Route> ROUTE_HOLDER = new ThreadLocal<>();
+
+    /**
+     * 切换路由
+     * @return 上一层的路由，退出时交给 restore
+     */
+    public static Route use(Route route) {
+        Route previous = ROUTE_HOLDER.get();
+        ROUTE_HOLDER.set(route);
+        return previous;
+    }
+
+    public static void restore(Route previous) {
+        if (previous == null) {
+            ROUTE_HOLDER.remove();
+        } else {
+            ROUTE_HOLDER.set(previous);
+        }
+    }
+
+    /**
+     * 没有标记时为空，按主库处理
+     */
+    public static Route current() {
+        return ROUTE_HOLDER.get();
+    }
+}
@@ -1,5 +1,7 @@
 package com.polo.Blog.Utils;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import lombok.extern.slf4j.Slf4j;
@@ -16,6 +18,14 @@ public class GlobalExceptionHandler {
         return Result.error("系统繁忙，请稍后重试"); // 给前端返回提示
     }
 
+    // 乐观锁冲突返回 409，带上当前版本号，前端可重新加载后重试
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Result<Integer>> handleVersionConflict(VersionConflictException e) {
+        log.info("版本冲突：{}，当前版本 {}", e.getMessage(), e.getCurrentVersion());
+        Result<Integer> result = new Result<>(HttpStatus.CONFLICT.value(), e.getMessage(), e.getCurrentVersion());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+    }
+
     // 2. 捕获自定义的业务异常
     @ExceptionHandler(RuntimeException.class)
     public Result<String> handleRuntimeException(RuntimeException e) {
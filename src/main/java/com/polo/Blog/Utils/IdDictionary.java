@@ -0,0 +1,54 @@
+package com.polo.Blog.Utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 把雪花 long id 映射成从 0 开始连续的 int 编号
+ * RoaringBitmap 只存 int，编号越密压缩越好
+ */
+public class IdDictionary {
+
+    private final Map<Long, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile long[] ids = new long[1024];
+    private int size;
+
+    /**
+     * 获取 id 的编号，没有就分配一个
+     */
+    public int ordinal(long id) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal != null) return ordinal;
+        synchronized (this) {
+            ordinal = ordinals.get(id);
+            if (ordinal != null) return ordinal;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            ordinals.put(id, size);
+            return size++;
+        }
+    }
+
+    /**
+     * 查找 id 的编号，不分配
+     * @return 没有返回 -1
+     */
+    public int find(long id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * 编号还原成 id
+     */
+    public long id(int ordinal) {
+        return ids[ordinal];
+    }
+
+    public int size() {
+        return ordinals.size();
+    }
+}
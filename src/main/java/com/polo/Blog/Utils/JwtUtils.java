@@ -22,9 +22,22 @@ public class JwtUtils {
      * @param roleKey 角色标识 (如 admin)
      */
     public static String generateToken(String username, String roleKey) {
+        return generateToken(username, roleKey, null);
+    }
+
+    /**
+     * 生成 Token，同时带上用户id，后续请求不用再按用户名查库
+     * @param username 用户名
+     * @param roleKey 角色标识 (如 admin)
+     * @param userId 用户id
+     */
+    public static String generateToken(String username, String roleKey, Long userId) {
         // 你可以把 role 放在 map 里，也可以直接用 .claim
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", roleKey);
+        if (userId != null) {
+            claims.put("uid", String.valueOf(userId));
+        }
 
         return Jwts.builder()
                 .subject(username) // 标准字段：存用户名
@@ -0,0 +1,98 @@
+package com.polo.Blog.Utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁耗时直方图：桶上界从 50 微秒开始每档翻倍(最后一档约 52 秒)，超出的记在溢出桶
+ * 写入只是几次 LongAdder 累加，分位数按桶上界估算
+ */
+public class LatencyHistogram {
+    private static final long FIRST_BOUND_NANOS = 50_000L;
+    private static final int BOUND_COUNT = 21;
+    private static final long[] BOUNDS_NANOS = new long[BOUND_COUNT];
+
+    static {
+        for (int i = 0; i < BOUND_COUNT; i++) {
+            BOUNDS_NANOS[i] = FIRST_BOUND_NANOS << i;
+        }
+    }
+
+    //最后一个是溢出桶
+    private final LongAdder[] buckets = new LongAdder[BOUND_COUNT + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        int index = Arrays.binarySearch(BOUNDS_NANOS, value);
+        buckets[index >= 0 ? index : -index - 1].increment();
+        count.increment();
+        sumNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sumNanos() {
+        return sumNanos.sum();
+    }
+
+    public long maxNanos() {
+        return maxNanos.get();
+    }
+
+    public double meanMillis() {
+        long total = count();
+        return total == 0 ? 0 : sumNanos() / 1e6 / total;
+    }
+
+    /**
+     * 估算分位数
+     * @param quantile 0~1
+     * @return 毫秒
+     */
+    public double percentileMillis(double quantile) {
+        long[] counts = bucketCounts();
+        long total = 0;
+        for (long c : counts) total += c;
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                //溢出桶和最大值都不超过实际最大值
+                long bound = i < BOUND_COUNT ? BOUNDS_NANOS[i] : Long.MAX_VALUE;
+                return Math.min(bound, maxNanos()) / 1e6;
+            }
+        }
+        return maxNanos() / 1e6;
+    }
+
+    /**
+     * 各桶计数(非累计)，长度为桶上界个数 + 1
+     */
+    public long[] bucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) counts[i] = buckets[i].sum();
+        return counts;
+    }
+
+    /**
+     * 桶上界(秒)，不含溢出桶
+     */
+    public static double[] boundsSeconds() {
+        double[] bounds = new double[BOUND_COUNT];
+        for (int i = 0; i < BOUND_COUNT; i++) bounds[i] = BOUNDS_NANOS[i] / 1e9;
+        return bounds;
+    }
+}
@@ -0,0 +1,90 @@
+package com.polo.Blog.Utils;
+
+/**
+ * 拼 Prometheus 文本格式 (text/plain; version=0.0.4)
+ * 标签按 名称, 值 交替传入
+ */
+public class PrometheusWriter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] BOUNDS_SECONDS = LatencyHistogram.boundsSeconds();
+
+    private final StringBuilder out = new StringBuilder(8192);
+
+    public PrometheusWriter type(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public PrometheusWriter sample(String name, double value, String... labels) {
+        out.append(name);
+        appendLabels(labels, null);
+        out.append(' ').append(format(value)).append('\n');
+        return this;
+    }
+
+    /**
+     * 输出一组 _bucket / _sum / _count
+     */
+    public PrometheusWriter histogram(String name, LatencyHistogram histogram, String... labels) {
+        long[] counts = histogram.bucketCounts();
+        long cumulative = 0;
+        for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+            cumulative += counts[i];
+            out.append(name).append("_bucket");
+            appendLabels(labels, format(BOUNDS_SECONDS[i]));
+            out.append(' ').append(cumulative).append('\n');
+        }
+        cumulative += counts[BOUNDS_SECONDS.length];
+        out.append(name).append("_bucket");
+        appendLabels(labels, "+Inf");
+        out.append(' ').append(cumulative).append('\n');
+        sample(name + "_sum", histogram.sumNanos() / 1e9, labels);
+        //count 和桶合计保持一致
+        out.append(name).append("_count");
+        appendLabels(labels, null);
+        out.append(' ').append(cumulative).append('\n');
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void appendLabels(String[] labels, String le) {
+        if (labels.length == 0 && le == null) return;
+        out.append('{');
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) out.append(',');
+            out.append(labels[i]).append("=\"");
+            escape(labels[i + 1]);
+            out.append('"');
+        }
+        if (le != null) {
+            if (labels.length > 0) out.append(',');
+            out.append("le=\"").append(le).append('"');
+        }
+        out.append('}');
+    }
+
+    private void escape(String value) {
+        if (value == null) return;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
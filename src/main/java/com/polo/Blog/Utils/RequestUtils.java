@@ -0,0 +1,17 @@
+package com.polo.Blog.Utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 请求相关的小工具
+ */
+public class RequestUtils {
+
+    /**
+     * 客户端 IP，不直接读 X-Forwarded-For / X-Real-IP(客户端可以随意伪造)
+     * 经过反向代理时由 server.forward-headers-strategy 只对受信任的代理改写 remoteAddr
+     */
+    public static String clientIp(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
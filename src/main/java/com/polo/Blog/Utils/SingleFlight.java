@@ -0,0 +1,76 @@
+package com.polo.Blog.Utils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 相同 key 的并发加载合并成一次：第一个调用者执行，其余的等它的结果(或异常)
+ * 只合并同时进行的调用，执行完立即移除，不缓存结果
+ */
+public class SingleFlight {
+    private final String name;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String key, Supplier<V> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return (V) running.join();
+            } catch (CompletionException e) {
+                //把执行者抛出的异常原样抛给等待者
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                if (e.getCause() instanceof Error cause) throw cause;
+                throw e;
+            }
+        }
+        executed.increment();
+        try {
+            V value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 实际执行的次数
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    /**
+     * 等待别人结果的次数(省下的加载)
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * 正在执行的 key 数
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
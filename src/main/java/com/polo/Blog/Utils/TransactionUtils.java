@@ -0,0 +1,27 @@
+package com.polo.Blog.Utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务相关工具
+ */
+public class TransactionUtils {
+
+    /**
+     * 当前事务提交后再执行（回滚则不执行），不在事务中时立即执行
+     * 用于更新内存索引、缓存等，避免事务回滚后内存和数据库不一致
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -34,7 +34,7 @@ public class UserContext {
     public static class LoginUser {
         private String username; // 用户名
         private String roleKey;  // 角色标识 (admin, user)
-        // 你还可以加 userId, nickname 等
+        private Long userId;     // 用户id (旧 Token 里没有，可能为空)
     }
 }
 
@@ -0,0 +1,17 @@
+package com.polo.Blog.Utils;
+
+import lombok.Getter;
+
+/**
+ * 乐观锁冲突：提交时带的版本号已经不是最新，前端拿 currentVersion 重新加载后再提交
+ */
+@Getter
+public class VersionConflictException extends RuntimeException {
+    //数据库里当前的版本号，记录已不存在时为空
+    private final Integer currentVersion;
+
+    public VersionConflictException(String message, Integer currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+}
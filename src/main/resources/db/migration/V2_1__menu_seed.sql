@@ -0,0 +1,44 @@
+-- ==========================================
+-- 菜单权限初始数据
+-- 权限位图按 sys_menu / sys_role_menu 加载，已有的库从 V1 之后执行，不能放在 V1 里
+-- ==========================================
+
+-- ==========================================
+-- 1. 菜单权限表 (sys_menu)
+-- 目录/菜单对应前端动态路由，按钮只用于接口权限标识
+-- ==========================================
+DELETE FROM `sys_menu` WHERE id BETWEEN 1 AND 99;
+
+INSERT INTO `sys_menu` (`id`, `parent_id`, `menu_name`, `path`, `component`, `perms`, `icon`, `menu_type`, `order_num`, `status`, `create_time`) VALUES
+(1,  0,  '仪表盘',   '/dashboard',                  'RouteView',                NULL,                   'DashboardOutlined', 'M', 1, '0', NOW()),
+(2,  1,  '景点地图', '/dashboard/analysis',         'dashboard/analysis',       NULL,                   '#',                 'C', 1, '0', NOW()),
+(3,  1,  '监控页',   '/dashboard/monitor',          'dashboard/monitor',        NULL,                   '#',                 'C', 2, '0', NOW()),
+(4,  1,  '工作台',   '/dashboard/workplace',        'dashboard/workplace',      'blog:analytics:view',  '#',                 'C', 3, '0', NOW()),
+(5,  0,  '景点发布', '/form',                       'RouteView',                NULL,                   'FormOutlined',      'M', 2, '0', NOW()),
+(6,  5,  '景点发布', '/form/basic-form/:id?',       'form/basic-form',          'blog:article:publish', '#',                 'C', 1, '0', NOW()),
+(7,  0,  '功能',     '/menu',                       'RouteView',                NULL,                   'BarsOutlined',      'M', 3, '0', NOW()),
+(8,  7,  '用户管理', '/menu/menu1',                 'menu/menu1',               'system:user:list',     '#',                 'C', 1, '0', NOW()),
+(9,  0,  '景点列表', '/list',                       'RouteView',                NULL,                   'TableOutlined',     'M', 4, '0', NOW()),
+(10, 9,  '景点列表', '/list/card-list',             'list/card-list',           NULL,                   '#',                 'C', 1, '0', NOW()),
+(11, 9,  '景点管理', '/list/crud-table',            'list/crud-table',          'blog:article:manage',  '#',                 'C', 2, '0', NOW()),
+(12, 9,  '搜索景点', '/list/search-list/articles',  'list/search-list/articles', NULL,                  '#',                 'C', 3, '0', NOW()),
+(13, 0,  '个人页',   '/account',                    'RouteView',                NULL,                   'UserOutlined',      'M', 5, '0', NOW()),
+(14, 13, '个人设置', '/account/settings',           'account/settings',         NULL,                   '#',                 'C', 1, '0', NOW()),
+(20, 11, '全部文章', '',                            NULL,                       'blog:article:list',    '#',                 'F', 1, '0', NOW()),
+(21, 11, '文章审核', '',                            NULL,                       'blog:article:audit',   '#',                 'F', 2, '0', NOW()),
+(22, 11, '文章删除', '',                            NULL,                       'blog:article:remove',  '#',                 'F', 3, '0', NOW()),
+(23, 8,  '用户查询', '',                            NULL,                       'system:user:query',    '#',                 'F', 1, '0', NOW()),
+(24, 8,  '用户删除', '',                            NULL,                       'system:user:remove',   '#',                 'F', 2, '0', NOW()),
+(25, 7,  '刷新权限', '',                            NULL,                       'system:menu:reload',   '#',                 'F', 9, '0', NOW());
+
+-- ==========================================
+-- 2. 角色-菜单关联表 (sys_role_menu)
+-- 管理员不需要配置，默认拥有全部权限
+-- ==========================================
+DELETE FROM `sys_role_menu` WHERE role_id IN (1, 2, 3);
+
+INSERT INTO `sys_role_menu` (`role_id`, `menu_id`) VALUES
+-- 作者：发布、管理自己的景点
+(2, 1), (2, 2), (2, 3), (2, 5), (2, 6), (2, 9), (2, 10), (2, 11), (2, 12), (2, 13), (2, 14),
+-- 用户：浏览
+(3, 1), (3, 2), (3, 9), (3, 10), (3, 12), (3, 13), (3, 14);
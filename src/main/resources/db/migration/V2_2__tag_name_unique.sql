@@ -0,0 +1,29 @@
+-- ==========================================
+-- 标签名唯一
+-- 并发发布同一个新标签时原来会各建一条，倒排索引分到两个标签id上，按标签查询会漏文章
+-- 先把同名标签合并到 id 最小的一条，再把名称索引换成唯一索引，创建标签改用 INSERT IGNORE
+-- ==========================================
+CREATE TEMPORARY TABLE `tmp_tag_keep` AS
+  SELECT `name`, MIN(`id`) AS `keep_id` FROM `landmark_tag` GROUP BY `name`;
+
+-- 关联改指向保留的标签，文章已经有保留标签的忽略，剩下的删掉
+UPDATE IGNORE `landmark_article_tag` r
+  JOIN `landmark_tag` t ON t.`id` = r.`tag_id`
+  JOIN `tmp_tag_keep` k ON k.`name` = t.`name`
+SET r.`tag_id` = k.`keep_id`
+WHERE t.`id` <> k.`keep_id`;
+
+DELETE r FROM `landmark_article_tag` r
+  JOIN `landmark_tag` t ON t.`id` = r.`tag_id`
+  JOIN `tmp_tag_keep` k ON k.`name` = t.`name`
+WHERE t.`id` <> k.`keep_id`;
+
+DELETE t FROM `landmark_tag` t
+  JOIN `tmp_tag_keep` k ON k.`name` = t.`name`
+WHERE t.`id` <> k.`keep_id`;
+
+DROP TEMPORARY TABLE `tmp_tag_keep`;
+
+ALTER TABLE `landmark_tag`
+  DROP INDEX `idx_name`,
+  ADD UNIQUE KEY `uk_name` (`name`);
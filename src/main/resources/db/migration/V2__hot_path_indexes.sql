@@ -0,0 +1,40 @@
+-- ==========================================
+-- 热点查询索引
+-- 对应 ArticleServiceImpl / CommentServiceImpl / 各内存索引启动加载的查询条件和排序
+-- ==========================================
+
+-- 文章状态字段原来是 char(1)，实体和查询条件都是数字，隐式转换会让索引失效，统一改成 int
+ALTER TABLE `landmark_article`
+  MODIFY COLUMN `is_top` int(1) DEFAULT 0 COMMENT '是否置顶(0否 1是)',
+  MODIFY COLUMN `status` int(1) DEFAULT 1 COMMENT '状态(0:草稿 1:发布)',
+  MODIFY COLUMN `is_comment` int(1) DEFAULT 1 COMMENT '是否允许评论(0否 1是)';
+
+-- 前台列表 / 按标签列表：status = 1 AND is_deleted = 0 ORDER BY update_time DESC
+CREATE INDEX `idx_status_deleted_update` ON `landmark_article` (`status`, `is_deleted`, `update_time`);
+-- 热门列表：status = 1 AND is_deleted = 0 ORDER BY view_count DESC
+CREATE INDEX `idx_status_deleted_view` ON `landmark_article` (`status`, `is_deleted`, `view_count`);
+-- 创作者管理列表：create_by = ? AND is_deleted = 0 ORDER BY update_time DESC
+CREATE INDEX `idx_create_by_deleted_update` ON `landmark_article` (`create_by`, `is_deleted`, `update_time`);
+-- 按分类搜索：category_id IN (...) AND status = 1 AND is_deleted = 0
+CREATE INDEX `idx_category_status_deleted` ON `landmark_article` (`category_id`, `status`, `is_deleted`);
+
+-- 搜索记录：keyword = ?
+CREATE INDEX `idx_keyword` ON `sys_search_history` (`keyword`);
+
+-- 标签 / 分类按名称查找
+CREATE INDEX `idx_name` ON `landmark_tag` (`name`);
+CREATE INDEX `idx_name` ON `landmark_category` (`name`);
+
+-- 文章-标签反查：tag_id = ?
+CREATE INDEX `idx_tag_article` ON `landmark_article_tag` (`tag_id`, `article_id`);
+
+-- 评论游标分页：article_id = ? AND root_id = -1 AND is_deleted = 0 AND id < ? ORDER BY id DESC
+-- 回复分页和预览：root_id IN (...) AND is_deleted = 0 ORDER BY id
+-- 二级索引自带主键 id，不用再写
+DROP INDEX `idx_article_id` ON `landmark_comment`;
+DROP INDEX `idx_root_id` ON `landmark_comment`;
+CREATE INDEX `idx_article_root_deleted` ON `landmark_comment` (`article_id`, `root_id`, `is_deleted`);
+CREATE INDEX `idx_root_deleted` ON `landmark_comment` (`root_id`, `is_deleted`);
+
+-- 每日统计重建：date >= ?
+CREATE INDEX `idx_date` ON `landmark_article_daily_stats` (`date`);
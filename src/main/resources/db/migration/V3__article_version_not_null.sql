@@ -0,0 +1,8 @@
+-- ==========================================
+-- 文章乐观锁
+-- 版本号为空时乐观锁插件不加条件，先补齐再改成非空
+-- ==========================================
+UPDATE `landmark_article` SET `version` = 0 WHERE `version` IS NULL;
+
+ALTER TABLE `landmark_article`
+  MODIFY COLUMN `version` int(11) NOT NULL DEFAULT 0 COMMENT '乐观锁版本号';
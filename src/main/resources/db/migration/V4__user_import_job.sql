@@ -0,0 +1,18 @@
+-- ==========================================
+-- 批量导入用户的进度表
+-- 每提交一批记录已处理到的行号，同一个 job_id 重新上传时从下一行继续
+-- ==========================================
+CREATE TABLE `sys_user_import_job` (
+  `job_id` varchar(64) NOT NULL COMMENT '导入任务id(续传时带同一个)',
+  `last_line` bigint(20) NOT NULL DEFAULT 0 COMMENT '已提交的最后一行行号',
+  `imported` int(11) NOT NULL DEFAULT 0 COMMENT '已导入用户数',
+  `failed` int(11) NOT NULL DEFAULT 0 COMMENT '失败行数',
+  `finished` int(1) NOT NULL DEFAULT 0 COMMENT '是否已读完整个文件(0否 1是)',
+  `create_time` datetime DEFAULT NULL,
+  `update_time` datetime DEFAULT NULL,
+  PRIMARY KEY (`job_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户导入任务表';
+
+-- 用户管理下的导入按钮
+INSERT INTO `sys_menu` (`id`, `parent_id`, `menu_name`, `path`, `component`, `perms`, `icon`, `menu_type`, `order_num`, `status`, `create_time`) VALUES
+(26, 8,  '用户导入', '',                            NULL,                       'system:user:import',   '#',                 'F', 3, '0', NOW());
@@ -0,0 +1,16 @@
+-- ==========================================
+-- 文章事件发件箱
+-- 文章写入时在同一个事务里记一条事件，提交后投递给内存订阅者(分类统计、首页文章流、热度、缓存等)
+-- 投递成功后标记 dispatched，没投递的由定时任务补发，已投递的按保留时间清理
+-- ==========================================
+CREATE TABLE `landmark_article_outbox` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '事件id(同一篇文章按id顺序投递)',
+  `article_id` bigint(20) NOT NULL COMMENT '文章id',
+  `event_type` varchar(16) NOT NULL COMMENT '事件类型(PUBLISHED/UPDATED/STATE_CHANGED)',
+  `payload` text NOT NULL COMMENT '事件发生时的文章快照(JSON，不含正文)',
+  `dispatched` int(1) NOT NULL DEFAULT 0 COMMENT '是否已投递(0否 1是)',
+  `create_time` datetime NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_outbox_pending` (`dispatched`, `id`),
+  KEY `idx_outbox_create_time` (`create_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文章事件发件箱';
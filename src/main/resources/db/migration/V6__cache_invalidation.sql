@@ -0,0 +1,26 @@
+-- ==========================================
+-- 跨节点缓存失效日志
+-- 写入时在同一个事务里记一条(分区 + 键 + 写入节点)，各节点按自增id定时拉取比水位线新的记录，刷新自己的内存缓存
+-- 只保留几个小时，过期的按保留时间清理
+-- ==========================================
+CREATE TABLE `sys_cache_invalidation` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '日志id(各节点的水位线)',
+  `region` varchar(16) NOT NULL COMMENT '缓存分区(ARTICLE/CATEGORY/USER/ROLE/TAG)',
+  `cache_key` varchar(64) NOT NULL COMMENT '失效的键(实体id，* 表示整个分区)',
+  `node_id` varchar(64) NOT NULL COMMENT '写入节点，本节点的记录拉取时跳过',
+  `create_time` datetime NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_cache_invalidation_create_time` (`create_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='跨节点缓存失效日志';
+
+-- ==========================================
+-- 发件箱事件记录写入节点
+-- 其他节点按上面的失效日志从库里刷新，补发改为只由写入节点处理自己的事件，同一个事件不再在所有节点各投递一次
+-- ==========================================
+ALTER TABLE `landmark_article_outbox`
+  ADD COLUMN `node_id` varchar(64) DEFAULT NULL COMMENT '写入节点，只由它补发' AFTER `dispatched`,
+  DROP INDEX `idx_outbox_pending`,
+  ADD KEY `idx_outbox_pending` (`dispatched`, `node_id`, `id`);
+
+-- 升级前没投递的事件没有归属节点，升级重启时各节点的内存缓存会从库里全量加载，直接标记为已投递
+UPDATE `landmark_article_outbox` SET `dispatched` = 1 WHERE `dispatched` = 0;
@@ -0,0 +1,134 @@
+package com.polo.Blog;
+
+import com.polo.Blog.Domain.OV.ArticleVO;
+import com.polo.Blog.Service.ArticleService;
+import com.polo.Blog.Utils.SingleFlight;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 真实的 ArticleService 连 H2：并发请求同一篇文章的详情，文章表只查一次
+ * landmark_article 是带闸门函数的视图，第一条查询在闸门里等到其他请求都挂到同一次加载上才返回
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.url=jdbc:h2:mem:article-detail;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+class ArticleDetailLoadTests {
+    private static final int THREADS = 16;
+    private static final String THREAD_PREFIX = "detail-load-";
+    private static final long ARTICLE_ID = 1001L;
+
+    @Autowired
+    private ArticleService articleService;
+    @Autowired
+    private SingleFlight articleLoads;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS article_rows (id BIGINT PRIMARY KEY, category_id BIGINT, "
+                + "title VARCHAR(64), summary VARCHAR(255), content CLOB, thumbnail VARCHAR(255), is_top INT, status INT, "
+                + "is_comment INT, view_count BIGINT, version INT, create_time TIMESTAMP, update_time TIMESTAMP, "
+                + "create_by BIGINT, is_deleted INT, name VARCHAR(64), latitude DOUBLE, longitude DOUBLE)");
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS DETAIL_GATE FOR \"" + Gate.class.getName() + ".pass\"");
+        jdbcTemplate.execute("CREATE OR REPLACE VIEW landmark_article AS SELECT * FROM article_rows WHERE DETAIL_GATE()");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS sys_user (id BIGINT PRIMARY KEY, username VARCHAR(64), "
+                + "password VARCHAR(128), nickname VARCHAR(64), email VARCHAR(64), avatar VARCHAR(255), intro VARCHAR(255), "
+                + "status VARCHAR(1), login_ip VARCHAR(64), login_date TIMESTAMP, create_time TIMESTAMP, "
+                + "update_time TIMESTAMP, is_deleted INT)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS landmark_category (id BIGINT PRIMARY KEY, name VARCHAR(64), "
+                + "pid BIGINT, description VARCHAR(255), sort INT, create_time TIMESTAMP, update_time TIMESTAMP, is_deleted INT)");
+        jdbcTemplate.update("MERGE INTO sys_user (id, username, status, is_deleted) KEY (id) VALUES (7, 'author', '0', 0)");
+        jdbcTemplate.update("MERGE INTO landmark_category (id, name, pid, is_deleted) KEY (id) VALUES (3, '北京', 0, 0)");
+        jdbcTemplate.update("MERGE INTO article_rows (id, category_id, title, content, status, is_deleted, view_count, "
+                + "version, create_by, create_time, update_time) KEY (id) "
+                + "VALUES (?, 3, '故宫', '正文', 1, 0, 41, 0, 7, NOW(), NOW())", ARTICLE_ID);
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(THREADS, runnable -> new Thread(runnable, THREAD_PREFIX + counter.getAndIncrement()));
+        Gate.open(articleLoads);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Gate.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentDetailRequestsQueryArticleOnce() throws Exception {
+        long executedBefore = articleLoads.getExecuted();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ArticleVO>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return articleService.getArticleById(ARTICLE_ID);
+            }));
+        }
+        start.countDown();
+        List<ArticleVO> articles = new ArrayList<>();
+        for (Future<ArticleVO> result : results) {
+            articles.add(result.get(10, TimeUnit.SECONDS));
+        }
+        //请求线程对文章表只发了一条查询，其余请求共享它的结果
+        assertEquals(1, Gate.queries.get());
+        assertEquals(1, articleLoads.getExecuted() - executedBefore);
+        for (ArticleVO article : articles) {
+            assertEquals("故宫", article.getTitle());
+            assertEquals("author", article.getAuth());
+            assertEquals("北京", article.getCategoryName());
+            assertEquals(41, article.getViewCount());
+        }
+        //每个请求拿到的是自己的副本，改一个不影响其他
+        articles.get(0).setViewCount(42);
+        assertEquals(41, articles.get(1).getViewCount());
+    }
+
+    /**
+     * 视图每读一行调用一次；只统计、拦截测试线程，定时任务的查询直接放行
+     */
+    public static class Gate {
+        static final AtomicInteger queries = new AtomicInteger();
+        private static volatile SingleFlight flight;
+        private static volatile long coalescedBefore;
+
+        static void open(SingleFlight articleLoads) {
+            queries.set(0);
+            coalescedBefore = articleLoads.getCoalesced();
+            flight = articleLoads;
+        }
+
+        static void close() {
+            flight = null;
+        }
+
+        public static boolean pass() throws InterruptedException {
+            SingleFlight current = flight;
+            if (current == null || !Thread.currentThread().getName().startsWith(THREAD_PREFIX)) return true;
+            queries.incrementAndGet();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (current.getCoalesced() - coalescedBefore < THREADS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.polo.Blog;
+
+import com.polo.Blog.Domain.Entity.ArticleTag;
+import com.polo.Blog.Domain.Entity.ArticleTagRelation;
+import com.polo.Blog.Mapper.ArticleTagMapper;
+import com.polo.Blog.Mapper.ArticleTagRelationMapper;
+import com.polo.Blog.Service.CacheInvalidationListener;
+import com.polo.Blog.Service.CacheInvalidationService;
+import com.polo.Blog.Service.CacheInvalidationService.Region;
+import com.polo.Blog.Service.Impl.CacheInvalidationServiceImpl;
+import com.polo.Blog.Service.Impl.TagIndexServiceImpl;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 两个应用上下文(两个节点)连同一个 H2 库：一个写失效日志，另一个拉取后交给监听者
+ */
+class CacheInvalidationTests {
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private AnnotationConfigApplicationContext nodeA;
+    private AnnotationConfigApplicationContext nodeB;
+    //两个节点共用的"库"：标签表和文章标签关联表
+    private final List<ArticleTag> tags = new ArrayList<>();
+    private final List<ArticleTagRelation> relations = new ArrayList<>();
+
+    @BeforeAll
+    static void initTableInfo() {
+        //没有 MyBatis 上下文，Lambda 条件用到的表信息手动注册
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        TableInfoHelper.initTableInfo(assistant, ArticleTag.class);
+        TableInfoHelper.initTableInfo(assistant, ArticleTagRelation.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:cache-invalidation-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE sys_cache_invalidation (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "region VARCHAR(16) NOT NULL, cache_key VARCHAR(64) NOT NULL, node_id VARCHAR(64) NOT NULL, "
+                + "create_time TIMESTAMP NOT NULL)");
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.close();
+        nodeB.close();
+        dataSource.close();
+    }
+
+    @Test
+    void writesOnOneNodeReachTheOther() {
+        service(nodeA).broadcast(Region.ARTICLE, List.of(1L, 2L, 1L));
+        service(nodeA).broadcast(Region.ROLE, CacheInvalidationService.ALL);
+        service(nodeB).poll();
+        assertEquals(List.of(Set.of("1", "2")), recorder(nodeB, "articles").batches);
+        assertEquals(List.of(Set.of(CacheInvalidationService.ALL)), recorder(nodeB, "roles").batches);
+        //自己写的跳过
+        service(nodeA).poll();
+        assertTrue(recorder(nodeA, "articles").batches.isEmpty());
+        assertTrue(recorder(nodeA, "roles").batches.isEmpty());
+        //水位线前移，不重复投递
+        service(nodeB).poll();
+        assertEquals(1, recorder(nodeB, "articles").batches.size());
+    }
+
+    @Test
+    void rolledBackWriteIsNotBroadcast() {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.executeWithoutResult(status -> {
+            service(nodeA).broadcast(Region.ARTICLE, 3L);
+            status.setRollbackOnly();
+        });
+        transaction.executeWithoutResult(status -> service(nodeA).broadcast(Region.ARTICLE, 4L));
+        service(nodeB).poll();
+        assertEquals(List.of(Set.of("4")), recorder(nodeB, "articles").batches);
+    }
+
+    @Test
+    void lateCommitBehindWatermarkIsPickedUp() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            //先分配到id的事务后提交
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO sys_cache_invalidation (region, cache_key, node_id, create_time) VALUES ('ARTICLE', '7', 'node-c', ?)")) {
+                statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                statement.executeUpdate();
+            }
+            service(nodeA).broadcast(Region.ARTICLE, 8L);
+            service(nodeB).poll();
+            assertEquals(List.of(Set.of("8")), recorder(nodeB, "articles").batches);
+            connection.commit();
+        }
+        service(nodeB).poll();
+        assertEquals(List.of(Set.of("8"), Set.of("7")), recorder(nodeB, "articles").batches);
+    }
+
+    @Test
+    void failedKeysAreRetriedThenReloadedWhole() {
+        Recorder roles = recorder(nodeB, "roles");
+        roles.failures = 1;
+        service(nodeA).broadcast(Region.ROLE, 5L);
+        service(nodeB).poll();
+        assertTrue(roles.batches.isEmpty());
+        //水位线已经前移，失败的键在下一次拉取时重试
+        service(nodeB).poll();
+        assertEquals(List.of(Set.of("5")), roles.batches);
+
+        //重试也失败时整个分区重新加载
+        roles.failures = 2;
+        service(nodeA).broadcast(Region.ROLE, 6L);
+        service(nodeB).poll();
+        service(nodeB).poll();
+        service(nodeB).poll();
+        assertEquals(List.of(Set.of("5"), Set.of(CacheInvalidationService.ALL)), roles.batches);
+        service(nodeB).poll();
+        assertEquals(2, roles.batches.size());
+    }
+
+    @Test
+    void tagChangesReloadArticleOnOtherNode() {
+        TagIndexServiceImpl tagIndexB = nodeB.getBean(TagIndexServiceImpl.class);
+        LocalDateTime now = LocalDateTime.now();
+        tags.add(new ArticleTag(10L, "Java", now, now, 0));
+        relations.add(new ArticleTagRelation(1L, 10L));
+        service(nodeA).broadcast(Region.TAG, 1L);
+        service(nodeB).poll();
+        //别的节点新建的标签也进了字典，大小写不敏感
+        assertEquals(List.of(1L), tagIndexB.queryArticleIds(List.of("java"), false, null));
+        assertEquals(List.of("Java"), tagIndexB.getTagNames(1L));
+
+        relations.clear();
+        tags.add(new ArticleTag(11L, "Spring", now, now, 0));
+        relations.add(new ArticleTagRelation(1L, 11L));
+        service(nodeA).broadcast(Region.TAG, 1L);
+        service(nodeB).poll();
+        assertTrue(tagIndexB.queryArticleIds(List.of("Java"), false, null).isEmpty());
+        assertEquals(List.of(1L), tagIndexB.queryArticleIds(List.of("Spring"), false, null));
+    }
+
+    private AnnotationConfigApplicationContext startNode(String nodeId) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("node", Map.of("cache-invalidation.node-id", nodeId)));
+        context.registerBean(DataSource.class, () -> dataSource);
+        context.registerBean(JdbcTemplate.class, () -> new JdbcTemplate(dataSource));
+        context.registerBean(CacheInvalidationServiceImpl.class);
+        context.registerBean("articles", Recorder.class, () -> new Recorder(Region.ARTICLE));
+        context.registerBean("roles", Recorder.class, () -> new Recorder(Region.ROLE));
+        context.registerBean(ArticleTagMapper.class, () -> selectOnly(ArticleTagMapper.class, tags));
+        context.registerBean(ArticleTagRelationMapper.class, () -> selectOnly(ArticleTagRelationMapper.class, relations));
+        context.registerBean(TagIndexServiceImpl.class);
+        context.refresh();
+        return context;
+    }
+
+    private static CacheInvalidationServiceImpl service(AnnotationConfigApplicationContext context) {
+        return context.getBean(CacheInvalidationServiceImpl.class);
+    }
+
+    private static Recorder recorder(AnnotationConfigApplicationContext context, String name) {
+        return context.getBean(name, Recorder.class);
+    }
+
+    /**
+     * 只支持 selectList 的 mapper，忽略查询条件返回全部行；监听者本来就只查被失效的那几篇文章
+     */
+    private static <T> T selectOnly(Class<T> mapperType, List<?> rows) {
+        return mapperType.cast(Proxy.newProxyInstance(mapperType.getClassLoader(), new Class<?>[]{mapperType},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("selectList") && args.length == 1) return new ArrayList<>(rows);
+                    if (method.getDeclaringClass() == Object.class) return method.invoke(rows, args);
+                    throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+
+    static class Recorder implements CacheInvalidationListener {
+        final Region region;
+        final List<Set<String>> batches = new ArrayList<>();
+        //接下来的几次调用抛异常
+        int failures;
+
+        Recorder(Region region) {
+            this.region = region;
+        }
+
+        @Override
+        public Region region() {
+            return region;
+        }
+
+        @Override
+        public void onInvalidate(Set<String> keys) {
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("fail");
+            }
+            batches.add(new HashSet<>(keys));
+        }
+    }
+}
@@ -3,7 +3,8 @@ package com.polo.Blog;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+//不连数据库，跳过启动迁移
+@SpringBootTest(properties = "spring.flyway.enabled=false")
 class MyBlogApplicationTests {
 
 	@Test
@@ -0,0 +1,263 @@
+package com.polo.Blog;
+
+import com.polo.Blog.Service.ArticleService;
+import com.polo.Blog.Service.ArticleTagService;
+import com.polo.Blog.Service.CategoryService;
+import com.polo.Blog.Service.CommentLikeService;
+import com.polo.Blog.Service.CommentService;
+import com.polo.Blog.Service.Impl.AnalyticsServiceImpl;
+import com.polo.Blog.Utils.UserContext;
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 热点查询执行计划回归测试：在本地 MySQL 上建一个临时库，Flyway 迁移后灌入接近线上规模的数据
+ * 每个用例调用真实的 Service 方法，拦截 Mapper / Wrapper 实际生成的 SQL 和参数，再 EXPLAIN 断言走的索引
+ * 连不上 MySQL 时整体跳过，可用 -Dit.db.server / -Dit.db.username / -Dit.db.password 指定，结束后删除临时库
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@EnabledIf("mysqlAvailable")
+class QueryPlanTests {
+    private static final String SERVER = System.getProperty("it.db.server", "jdbc:mysql://localhost:3306");
+    private static final String USERNAME = System.getProperty("it.db.username", "root");
+    private static final String PASSWORD = System.getProperty("it.db.password", "123456");
+    private static final String SCHEMA = "travel_plan_" + System.currentTimeMillis();
+    private static final String MAPPER = "com.polo.Blog.Mapper.";
+    private static Boolean available;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+    @Autowired
+    private ArticleService articleService;
+    @Autowired
+    private ArticleTagService articleTagService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private CommentService commentService;
+    @Autowired
+    private CommentLikeService commentLikeService;
+    @Autowired
+    private AnalyticsServiceImpl analyticsService;
+
+    private final CaptureInterceptor capture = new CaptureInterceptor();
+    private JdbcTemplate jdbcTemplate;
+
+    static synchronized boolean mysqlAvailable() {
+        if (available == null) {
+            try (Connection ignored = DriverManager.getConnection(SERVER + "?connectTimeout=2000", USERNAME, PASSWORD)) {
+                available = true;
+            } catch (SQLException e) {
+                available = false;
+            }
+        }
+        return available;
+    }
+
+    @DynamicPropertySource
+    static void schema(DynamicPropertyRegistry registry) throws SQLException {
+        //不碰开发用的 travel 库，每次新建一个库让 Flyway 从 V1 开始迁移
+        try (Connection connection = DriverManager.getConnection(SERVER, USERNAME, PASSWORD);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + SCHEMA + " DEFAULT CHARSET utf8mb4");
+        }
+        registry.add("spring.datasource.url", () -> SERVER + "/" + SCHEMA
+                + "?useUnicode=true&characterEncoding=utf-8&serverTimezone=Asia/Shanghai&rewriteBatchedStatements=true");
+        registry.add("spring.datasource.username", () -> USERNAME);
+        registry.add("spring.datasource.password", () -> PASSWORD);
+        registry.add("datasource-routing.replica-urls", () -> "");
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        //0 ~ 99999 的序号表，各表按序号批量生成
+        jdbcTemplate.execute("CREATE TABLE tmp_digit (d INT PRIMARY KEY)");
+        jdbcTemplate.execute("INSERT INTO tmp_digit VALUES (0),(1),(2),(3),(4),(5),(6),(7),(8),(9)");
+        jdbcTemplate.execute("CREATE TABLE tmp_seq (n INT PRIMARY KEY)");
+        jdbcTemplate.execute("INSERT INTO tmp_seq SELECT a.d + b.d * 10 + c.d * 100 + d.d * 1000 + e.d * 10000 "
+                + "FROM tmp_digit a, tmp_digit b, tmp_digit c, tmp_digit d, tmp_digit e");
+
+        jdbcTemplate.update("INSERT INTO sys_user (id, username, password, is_deleted) "
+                + "SELECT 1000 + n, CONCAT('user-', n), 'x', 0 FROM tmp_seq WHERE n < 2000");
+        jdbcTemplate.update("INSERT INTO landmark_category (id, name) "
+                + "SELECT 1 + n, CONCAT('category-', n) FROM tmp_seq WHERE n < 200");
+        jdbcTemplate.update("INSERT INTO landmark_tag (id, name) "
+                + "SELECT 1 + n, CONCAT('tag-', n) FROM tmp_seq WHERE n < 5000");
+        //约九成已发布、5% 已删除，作者集中在前 500 个用户
+        jdbcTemplate.update("INSERT INTO landmark_article (id, title, summary, category_id, view_count, status, "
+                + "is_deleted, create_by, create_time, update_time) "
+                + "SELECT 1 + n, CONCAT('article-', n), 'summary', 1 + n % 200, (n * 7919) % 100000, "
+                + "IF(n % 10 = 0, 0, 1), IF(n % 20 = 0, 1, 0), 1000 + n % 500, "
+                + "NOW() - INTERVAL n MINUTE, NOW() - INTERVAL n MINUTE FROM tmp_seq WHERE n < 50000");
+        jdbcTemplate.update("INSERT INTO landmark_article_tag (article_id, tag_id) "
+                + "SELECT 1 + n % 50000, 1 + (n * 31 + n DIV 50000) % 5000 FROM tmp_seq");
+        //七成根评论，其余挂在同一篇文章的根评论下
+        jdbcTemplate.update("INSERT INTO landmark_comment (id, article_id, user_id, content, root_id, is_deleted, create_time) "
+                + "SELECT 1 + n, 1 + n % 5000, 1000 + n % 2000, 'comment', "
+                + "IF(n % 10 < 7, -1, 1 + n - n % 10), 0, NOW() FROM tmp_seq");
+        jdbcTemplate.update("INSERT INTO landmark_comment_like (id, comment_id, user_id, create_time) "
+                + "SELECT 1 + n, 1 + n % 50000, 1000 + n DIV 50000, NOW() FROM tmp_seq");
+        jdbcTemplate.update("INSERT INTO sys_search_history (id, keyword, search_times) "
+                + "SELECT 1 + n, CONCAT('keyword-', n), 1 FROM tmp_seq WHERE n < 20000");
+        //一万多天的历史，重建窗口只覆盖最近的一小段
+        jdbcTemplate.update("INSERT INTO landmark_article_daily_stats (id, article_id, date, view_count) "
+                + "SELECT 1 + s.n * 10 + a.d, 1 + a.d, CURDATE() - INTERVAL s.n DAY, 1 "
+                + "FROM tmp_seq s, tmp_digit a WHERE s.n < 12000");
+        jdbcTemplate.execute("DROP TABLE tmp_seq");
+        jdbcTemplate.execute("DROP TABLE tmp_digit");
+        jdbcTemplate.execute("ANALYZE TABLE sys_user, landmark_category, landmark_tag, landmark_article, "
+                + "landmark_article_tag, landmark_comment, landmark_comment_like, sys_search_history, "
+                + "landmark_article_daily_stats");
+        sqlSessionFactory.getConfiguration().addInterceptor(capture);
+    }
+
+    @AfterAll
+    void dropSchema() {
+        jdbcTemplate.execute("DROP DATABASE " + SCHEMA);
+    }
+
+    Stream<Arguments> hotQueries() {
+        UserContext.LoginUser reader = new UserContext.LoginUser("user-1", "user", 1001L);
+        UserContext.LoginUser author = new UserContext.LoginUser("user-0", "auth", 1000L);
+        return Stream.of(
+                Arguments.of("热门文章", reader, (Runnable) () -> articleService.getHotArticle(1, 20),
+                        "ArticleMapper", "idx_status_deleted_view"),
+                Arguments.of("创作者文章", author, (Runnable) () -> articleService.getArticleManagerList(),
+                        "ArticleMapper", "idx_create_by_deleted_update"),
+                Arguments.of("按分类搜索", reader, (Runnable) () -> articleService.getArticleByKeyWord("a", List.of(1L, 2L)),
+                        "ArticleMapper", "idx_category_status_deleted"),
+                Arguments.of("搜索记录", reader, (Runnable) () -> articleService.getArticleByKeyWord("a", List.of(1L, 2L)),
+                        "SearchHistoryMapper", "idx_keyword"),
+                Arguments.of("标签按名称", reader, (Runnable) () -> articleTagService.resolveTagIds(List.of("tag-1", "tag-2")),
+                        "ArticleTagMapper", "uk_name"),
+                Arguments.of("分类按名称", reader, (Runnable) () -> categoryService.getOrCreateByName("category-3"),
+                        "CategoryMapper", "idx_name"),
+                Arguments.of("文章标签", reader, (Runnable) () -> articleTagService.replaceArticleTags(1L, List.of("tag-1")),
+                        "ArticleTagRelationMapper", "PRIMARY"),
+                Arguments.of("根评论分页", reader, (Runnable) () -> commentService.getCommentPage(1L, null, 10),
+                        "CommentMapper", "idx_article_root_deleted"),
+                Arguments.of("回复分页", reader, (Runnable) () -> commentService.getReplyPage(1L, null, 10),
+                        "CommentMapper", "idx_root_deleted"),
+                Arguments.of("点赞状态", reader, (Runnable) () -> commentLikeService.getLikedCommentIds(1000L, List.of(1L, 2L, 3L)),
+                        "CommentLikeMapper", "uk_comment_user"),
+                Arguments.of("每日统计重建", reader, (Runnable) () -> analyticsService.rebuild(),
+                        "ArticleDailyMapper", "idx_date")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesIndex(String name, UserContext.LoginUser user, Runnable call, String mapper, String expectedKey)
+            throws SQLException {
+        Captured captured;
+        UserContext.set(user);
+        capture.start(MAPPER + mapper + ".");
+        try {
+            call.run();
+        } finally {
+            captured = capture.stop();
+            UserContext.remove();
+        }
+        assertNotNull(captured, name + " 没有经过 " + mapper + " 查询");
+
+        Map<String, String> row = explain(captured).get(0);
+        assertNotEquals("ALL", row.get("type"), name + " 退化成全表扫描: " + captured.sql() + " -> " + row);
+        assertEquals(expectedKey, row.get("key"), name + " 没有走索引: " + captured.sql() + " -> " + row);
+    }
+
+    private List<Map<String, String>> explain(Captured captured) throws SQLException {
+        List<Map<String, String>> rows = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + captured.sql())) {
+            //用拦截到的参数处理器绑定，和真实执行时的参数一致
+            captured.parameters().setParameters(statement);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData meta = resultSet.getMetaData();
+                while (resultSet.next()) {
+                    Map<String, String> row = new HashMap<>();
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        row.put(meta.getColumnLabel(i), resultSet.getString(i));
+                    }
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private record Captured(String sql, ParameterHandler parameters) {
+    }
+
+    /**
+     * 记下指定 Mapper 的第一条查询(跳过分页插件的 count 语句)
+     */
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+    static class CaptureInterceptor implements Interceptor {
+        private volatile String prefix;
+        private volatile Captured captured;
+
+        void start(String prefix) {
+            this.captured = null;
+            this.prefix = prefix;
+        }
+
+        Captured stop() {
+            prefix = null;
+            return captured;
+        }
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            String wanted = prefix;
+            if (wanted != null && captured == null) {
+                StatementHandler handler = (StatementHandler) invocation.getTarget();
+                //外层还有分页插件时拿到的是代理，剥到 RoutingStatementHandler
+                MetaObject meta = SystemMetaObject.forObject(handler);
+                while (Proxy.isProxyClass(meta.getOriginalObject().getClass())) {
+                    meta = SystemMetaObject.forObject(meta.getValue("h.target"));
+                }
+                MappedStatement statement = (MappedStatement) meta.getValue("delegate.mappedStatement");
+                if (statement.getSqlCommandType() == SqlCommandType.SELECT
+                        && statement.getId().startsWith(wanted) && !statement.getId().endsWith("_mpCount")) {
+                    captured = new Captured(handler.getBoundSql().getSql(), handler.getParameterHandler());
+                }
+            }
+            return invocation.proceed();
+        }
+    }
+}
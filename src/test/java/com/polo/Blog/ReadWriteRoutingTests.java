@@ -0,0 +1,166 @@
+package com.polo.Blog;
+
+import com.polo.Blog.Annotation.CounterWrite;
+import com.polo.Blog.Annotation.ReadReplica;
+import com.polo.Blog.Config.RoutingDataSource;
+import com.polo.Blog.Interceptor.ReadReplicaAspect;
+import com.polo.Blog.Interceptor.WriteRoutingInterceptor;
+import com.polo.Blog.Utils.UserContext;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Invocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 读写分离路由测试：两个 H2 内存库分别当主库和从库，各放一行自己的名字，查出来是谁就知道走了哪个库
+ */
+class ReadWriteRoutingTests {
+    private static final long STICKY_MS = 300;
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private RoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private Reader reader;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        replica = h2("replica");
+        routingDataSource = new RoutingDataSource(primary, List.of(replica), STICKY_MS);
+        jdbcTemplate = new JdbcTemplate(new LazyConnectionDataSourceProxy(routingDataSource));
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Reader(jdbcTemplate));
+        factory.addAspect(new ReadReplicaAspect());
+        reader = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        UserContext.remove();
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void unmarkedQueriesUsePrimary() {
+        assertEquals("primary", reader.plainRead());
+    }
+
+    @Test
+    void readReplicaMethodsUseReplica() {
+        assertEquals("replica", reader.read());
+    }
+
+    @Test
+    void readWriteTransactionsStayOnPrimary() {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        assertEquals("primary", transaction.execute(status -> reader.read()));
+        transaction.setReadOnly(true);
+        assertEquals("replica", transaction.execute(status -> reader.read()));
+    }
+
+    @Test
+    void writesAreForcedToPrimaryAndStartStickyWindow() throws InterruptedException {
+        UserContext.set(new UserContext.LoginUser("author", "user", 1L));
+        WriteRoutingInterceptor interceptor = new WriteRoutingInterceptor(routingDataSource);
+        assertEquals("replica", reader.read());
+        //模拟一次写语句，执行期间连的是主库
+        assertEquals("primary", reader.write(interceptor));
+        //窗口内这个用户读主库，其他用户不受影响
+        assertEquals("primary", reader.read());
+        UserContext.set(new UserContext.LoginUser("reader", "user", 2L));
+        assertEquals("replica", reader.read());
+        UserContext.set(new UserContext.LoginUser("author", "user", 1L));
+        Thread.sleep(STICKY_MS + 50);
+        assertEquals("replica", reader.read());
+    }
+
+    @Test
+    void counterWritesInsideReadReplicaDoNotStartStickyWindow() {
+        UserContext.set(new UserContext.LoginUser("visitor", "user", 3L));
+        WriteRoutingInterceptor interceptor = new WriteRoutingInterceptor(routingDataSource);
+        //@ReadReplica 方法里顺带的写(如浏览量)走主库，但不算用户写入
+        assertEquals("primary", reader.readWithCounter(interceptor));
+        assertEquals("replica", reader.read());
+    }
+
+    @Test
+    void counterWriteMethodsDoNotStartStickyWindow() {
+        UserContext.set(new UserContext.LoginUser("visitor", "user", 4L));
+        WriteRoutingInterceptor interceptor = new WriteRoutingInterceptor(routingDataSource);
+        //在只读方法之外单独调用的计数写入同样不算用户写入
+        assertEquals("primary", reader.count(interceptor));
+        assertEquals("replica", reader.read());
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    public static class Reader {
+        private final JdbcTemplate jdbcTemplate;
+
+        public Reader(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        public String plainRead() {
+            return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+        }
+
+        @ReadReplica
+        public String read() {
+            return plainRead();
+        }
+
+        @ReadReplica
+        public String readWithCounter(WriteRoutingInterceptor interceptor) {
+            return write(interceptor);
+        }
+
+        @CounterWrite
+        public String count(WriteRoutingInterceptor interceptor) {
+            return write(interceptor);
+        }
+
+        /**
+         * 经过拦截器执行一次 Executor.update，返回执行时连到的库
+         */
+        public String write(WriteRoutingInterceptor interceptor) {
+            String[] connected = new String[1];
+            Executor executor = (Executor) Proxy.newProxyInstance(Executor.class.getClassLoader(), new Class<?>[]{Executor.class},
+                    (proxy, method, args) -> {
+                        connected[0] = plainRead();
+                        return 1;
+                    });
+            try {
+                Method update = Executor.class.getMethod("update", MappedStatement.class, Object.class);
+                interceptor.intercept(new Invocation(executor, update, new Object[]{null, null}));
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+            return connected[0];
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.polo.Blog;
+
+import com.polo.Blog.Utils.SingleFlight;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并发合并测试：加载函数查 H2 并计数，执行者等到其余线程都在等待后才返回，保证真的是同时发生
+ */
+class SingleFlightTests {
+    private static final int THREADS = 16;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private ExecutorService executor;
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:single-flight-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(THREADS);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE article (id BIGINT, title VARCHAR(32))");
+        jdbcTemplate.update("INSERT INTO article VALUES (1, 'hot')");
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        dataSource.close();
+    }
+
+    @Test
+    void concurrentIdenticalLoadsHitDatabaseOnce() throws Exception {
+        SingleFlight flight = new SingleFlight("test");
+        List<Future<String>> results = runConcurrently(flight, "detail:1", () -> {
+            waitForWaiters(flight, THREADS - 1);
+            return loadTitle(1);
+        });
+        for (Future<String> result : results) {
+            assertEquals("hot", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, queries.get());
+        assertEquals(1, flight.getExecuted());
+        assertEquals(THREADS - 1, flight.getCoalesced());
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    void failureIsSharedAndNextCallRetries() throws Exception {
+        SingleFlight flight = new SingleFlight("test");
+        List<Future<String>> results = runConcurrently(flight, "detail:2", () -> {
+            waitForWaiters(flight, THREADS - 1);
+            queries.incrementAndGet();
+            throw new IllegalStateException("db down");
+        });
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals(1, queries.get());
+        //失败不会留在表里，下一次重新加载
+        assertEquals("hot", flight.execute("detail:2", () -> loadTitle(1)));
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void differentKeysDoNotWaitForEachOther() {
+        SingleFlight flight = new SingleFlight("test");
+        String outer = flight.execute("hotList:admin", () -> flight.execute("hotList:public", () -> loadTitle(1)));
+        assertEquals("hot", outer);
+        assertEquals(2, flight.getExecuted());
+        assertEquals(0, flight.getCoalesced());
+    }
+
+    private List<Future<String>> runConcurrently(SingleFlight flight, String key, Callable<String> loader) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return flight.execute(key, () -> {
+                    try {
+                        return loader.call();
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    private String loadTitle(long id) {
+        queries.incrementAndGet();
+        return jdbcTemplate.queryForObject("SELECT title FROM article WHERE id = ?", String.class, id);
+    }
+
+    private static void waitForWaiters(SingleFlight flight, int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.getCoalesced() < waiters && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}